@@ -0,0 +1,78 @@
+/*-----------------------------------------------------------------------------*/
+/* Copyright (c) 2018 FIRST. All Rights Reserved.                              */
+/* Open Source Software - may be modified and shared by FRC teams. The code    */
+/* must be accompanied by the FIRST BSD license file in the root directory of  */
+/* the project.                                                                */
+/*                                                                             */
+/* JMH benchmarks of the periodic control paths on FakeHardware.  Each        */
+/* benchmark moves the joysticks, runs one path and advances the fake clock  */
+/* by one loop, with the FakeLoop driver from the tests.  Run with            */
+/* ./gradlew jmh; the gc profiler reports bytes allocated per op as           */
+/* gc.alloc.rate.norm.                                                        */
+/*-----------------------------------------------------------------------------*/
+
+package frc.robot;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LoopBenchmarks
+{
+  FakeLoop loop;
+  RobotCore core;
+
+  @Setup
+  public void Setup()
+  {
+    loop = new FakeLoop();
+    core = loop.core;
+    core.teleopInit();
+  }
+
+  @Benchmark
+  public void Cylinder_Controls()
+  {
+    loop.Next_Inputs();
+    core.lifts.Cylinder_Controls();
+  }
+
+  @Benchmark
+  public void Drive_Controls()
+  {
+    loop.Next_Inputs();
+    core.Drive_Controls();
+  }
+
+  @Benchmark
+  public void Drive_Ramp_Controls()
+  {
+    loop.Next_Inputs();
+    core.Drive_Ramp_Controls();
+  }
+
+  @Benchmark
+  public void Check_System_Status()
+  {
+    if( core.sysstat.Time_To_Climb() )
+      core.sysstat.StartGameClock();             // wrap the match clock, else every op after the climb alert is idle
+    loop.Next_Time();
+    core.sysstat.Check_System_Status();
+  }
+
+  @Benchmark
+  public void Teleop_Loop()
+  {
+    loop.Next_Loop();
+    core.teleopPeriodic();
+    core.robotPeriodic();
+  }
+}
@@ -0,0 +1,269 @@
+/*-----------------------------------------------------------------------------*/
+/* Copyright (c) 2018 FIRST. All Rights Reserved.                              */
+/* Open Source Software - may be modified and shared by FRC teams. The code    */
+/* must be accompanied by the FIRST BSD license file in the root directory of  */
+/* the project.                                                                */
+/*                                                                             */
+/* Keeps track of the air in the tanks, in pressure sensor volts, so a        */
+/* cylinder can fire as soon as there is enough air for its stroke instead of */
+/* waiting for full pressure.  Three things are learned while the robot runs: */
+/*   air use  - the pressure drop of each cylinder's extend and retract,      */
+/*              measured from just before the valve moves until SettleTime    */
+/*              after its actuation time, plus what the compressor put back   */
+/*              in that time.  The rear lift pair counts as one cylinder.     */
+/*   stroke   - how long the stroke took: the pressure falls while the        */
+/*              cylinder fills and stops falling when the piston reaches the */
+/*              end, so the stroke ended the last time the reading fell more  */
+/*              than DropNoise below its lowest value.                        */
+/*   refill   - the rate the pressure rises while the compressor runs, from   */
+/*              the slope of the readings between actuations.  Flat or       */
+/*              falling readings count too, so the rate falls to 0 when the  */
+/*              compressor stops.                                            */
+/* Can_Actuate() predicts the pressure at the end of a stroke from these and  */
+/* says yes when it stays at or above the minimum working pressure.           */
+/* Actuation_Time() is the learned stroke time with a safety margin, used in  */
+/* place of the CylinderActuationTime guess once MinStrokes strokes have been */
+/* timed, and kept between MinTimeScale and MaxTimeScale times the guess.     */
+/* Strokes are measured over at least the guessed time, so a learned time     */
+/* that came out too short can still grow back.                               */
+/* Only one actuation is measured at a time; when two overlap neither is     */
+/* learned.                                                                   */
+/*-----------------------------------------------------------------------------*/
+
+package frc.robot;
+
+public class AirBudget
+{
+  final int MaxCylinders = 8;
+  final double SettleTime = 0.25;                // seconds after the stroke before measuring the drop
+  final double SlopeInterval = 0.25;             // seconds between refill slope samples
+  final double UseFilter = 0.3;                  // weight of each new air use measurement
+  final double SlopeFilter = 0.2;                // weight of each new refill slope sample
+  final double TimeFilter = 0.3;                 // weight of each new stroke time
+  final double DropNoise = 0.02;                 // volts, smaller falls are sensor noise
+  final double MinDrop = 0.05;                   // volts a stroke must use to time it
+  final double TimeMargin = 1.2;                 // learned stroke time times this ...
+  final double TimeMarginSeconds = 0.05;         // ... plus this, for the actuation time
+  final double MinTimeScale = 0.5;               // learned actuation time is kept from this ...
+  final double MaxTimeScale = 2.0;               // ... to this times the guess
+  final int MinStrokes = 3;                      // strokes timed before the learned time is used
+  static final int None = -1;
+
+  private final Telemetry telemetry;
+  private double min_volts;                      // lowest pressure a stroke may end at
+  private double volts;                          // latest tank pressure
+  private double refill_rate = 0.0;              // volts per second while the compressor runs
+  private double pending = 0.0;                  // volts of strokes started and not yet ended
+
+  // Per cylinder and direction: index cylinder * 2, + 1 for retract
+  private final String[] keys = new String[MaxCylinders * 2];   // dashboard
+  private final String[] time_keys = new String[MaxCylinders * 2];
+  private final double[] use = new double[MaxCylinders * 2];
+  private final double[] stroke_time = new double[MaxCylinders * 2];   // seconds, 0 until seen
+  private final int[] strokes = new int[MaxCylinders * 2];             // stroke times learned
+  private final double[] pending_use = new double[MaxCylinders * 2];   // this stroke's part of pending
+  private final long[] pending_end = new long[MaxCylinders * 2];       // when it leaves pending
+
+  // Refill slope sample in progress
+  private boolean slope_valid = false;
+  private long slope_time;
+  private double slope_volts;
+
+  // Air use measurement in progress
+  private int measuring = None;
+  private boolean spoiled;                       // another stroke overlapped it
+  private long measure_start;
+  private long measure_end;
+  private double start_volts;
+  private double low_volts;                      // lowest reading since the valve moved
+  private long stroke_end;                       // when the reading last fell below low_volts
+
+
+  public AirBudget( Telemetry tlm, double min_volts )
+  {
+    telemetry = tlm;
+    this.min_volts = min_volts;
+    telemetry.SetEpsilon("AirRefillRate", 0.01);
+  }
+
+
+  /*****************************************************************/
+  /* Set_Cylinder() - name a cylinder id and give its first guess  */
+  /*                  of air use, volts per extend and retract.    */
+  /*****************************************************************/
+  public void Set_Cylinder( int id, String name, double extend_volts, double retract_volts )
+  {
+    if( id < 0 || id >= MaxCylinders )
+      throw new IllegalStateException("AirBudget: bad cylinder id " + id + " for " + name);
+    keys[id * 2] = name + "ExtendAir";
+    keys[id * 2 + 1] = name + "RetractAir";
+    time_keys[id * 2] = name + "ExtendTime";
+    time_keys[id * 2 + 1] = name + "RetractTime";
+    use[id * 2] = extend_volts;
+    use[id * 2 + 1] = retract_volts;
+  }
+
+
+  public void Set_Min_Volts( double volts )
+  {
+    min_volts = volts;
+  }
+
+
+  /*****************************************************************/
+  /* Update() - take this loop's tank pressure.  Times the stroke, */
+  /*            finishes an air use measurement or takes a refill  */
+  /*            slope sample.                                      */
+  /*****************************************************************/
+  public void Update( double new_volts, long now )
+  {
+    volts = new_volts;
+    if( pending != 0.0 )
+      End_Strokes(now);
+
+    if( measuring != None )
+    {
+      if( volts < low_volts - DropNoise )
+      {
+        low_volts = volts;
+        stroke_end = now;
+      }
+      if( now - measure_end < 0 )
+        return;
+      if( !spoiled )
+      {
+        double used = start_volts - volts + refill_rate * (now - measure_start) * 1e-9;
+        use[measuring] += (Math.max(used, 0.0) - use[measuring]) * UseFilter;
+        telemetry.putNumber(keys[measuring], use[measuring]);
+        if( start_volts - low_volts >= MinDrop )
+          Learn_Stroke_Time((stroke_end - measure_start) * 1e-9);
+      }
+      measuring = None;
+      slope_valid = false;                       // start the slope again after the stroke
+    }
+
+    if( !slope_valid )
+    {
+      slope_time = now;
+      slope_volts = volts;
+      slope_valid = true;
+    }
+    else if( (now - slope_time) * 1e-9 >= SlopeInterval )
+    {
+      double slope = (volts - slope_volts) / ((now - slope_time) * 1e-9);
+      refill_rate += (slope - refill_rate) * SlopeFilter;
+      if( refill_rate < 0.0 )                    // leaking, no refill to count on
+        refill_rate = 0.0;
+      telemetry.putNumber("AirRefillRate", refill_rate);
+      slope_time = now;
+      slope_volts = volts;
+    }
+  }
+
+
+  /* Take each stroke whose time is up out of pending, by itself, so */
+  /* one that overlapped it still counts.                            */
+  private void End_Strokes( long now )
+  {
+    double sum = 0.0;
+    for( int i = 0; i < pending_use.length; i++ )
+    {
+      if( pending_use[i] != 0.0 && now - pending_end[i] >= 0 )
+        pending_use[i] = 0.0;
+      sum += pending_use[i];
+    }
+    pending = sum;
+  }
+
+
+  /* New stroke time for the cylinder being measured. */
+  private void Learn_Stroke_Time( double seconds )
+  {
+    if( strokes[measuring]++ == 0 )
+      stroke_time[measuring] = seconds;          // first one seen
+    else
+      stroke_time[measuring] += (seconds - stroke_time[measuring]) * TimeFilter;
+    telemetry.putNumber(time_keys[measuring], stroke_time[measuring]);
+  }
+
+
+  /*****************************************************************/
+  /* Can_Actuate() - there is air for cylinder id to extend (or    */
+  /*                 retract) in seconds and stay at or above the  */
+  /*                 minimum working pressure.                     */
+  /*****************************************************************/
+  public boolean Can_Actuate( int id, boolean extend, double seconds )
+  {
+    double end_volts = volts - pending - use[Index(id, extend)] + refill_rate * seconds;
+    return end_volts >= min_volts;
+  }
+
+
+  /*****************************************************************/
+  /* Actuated() - cylinder id's valve just moved; measure the air  */
+  /*              it uses over its actuation time, and at least    */
+  /*              the guess of it.                                 */
+  /*****************************************************************/
+  public void Actuated( int id, boolean extend, double guess, long now )
+  {
+    int index = Index(id, extend);
+    double seconds = Math.max(guess, Actuation_Time(id, extend, guess));
+    long end = now + (long)((seconds + SettleTime) * 1e9);
+    pending += use[index];
+    pending_use[index] += use[index];
+    if( end - pending_end[index] > 0 )
+      pending_end[index] = end;
+    if( measuring != None )
+    {
+      spoiled = true;
+      if( end - measure_end > 0 )
+        measure_end = end;
+      return;
+    }
+    measuring = index;
+    spoiled = false;
+    measure_start = now;
+    measure_end = end;
+    start_volts = volts;
+    low_volts = volts;
+    stroke_end = now;
+  }
+
+
+  /*****************************************************************/
+  /* Actuation_Time() - seconds to let cylinder id extend (or      */
+  /*                    retract): the learned stroke time with a   */
+  /*                    margin, within limits of guess, or guess   */
+  /*                    until MinStrokes strokes were timed.       */
+  /*****************************************************************/
+  public double Actuation_Time( int id, boolean extend, double guess )
+  {
+    int index = Index(id, extend);
+    if( strokes[index] < MinStrokes )
+      return guess;
+    double time = stroke_time[index] * TimeMargin + TimeMarginSeconds;
+    return Math.max(guess * MinTimeScale, Math.min(guess * MaxTimeScale, time));
+  }
+
+
+  public double Get_Use( int id, boolean extend )
+  {
+    return use[Index(id, extend)];
+  }
+
+  public double Get_Refill_Rate()
+  {
+    return refill_rate;
+  }
+
+  /* Volts of strokes started and not yet ended. */
+  public double Get_Pending()
+  {
+    return pending;
+  }
+
+  private static int Index( int id, boolean extend )
+  {
+    return id * 2 + (extend ? 0 : 1);
+  }
+}
@@ -0,0 +1,131 @@
+/*-----------------------------------------------------------------------------*/
+/* Copyright (c) 2018 FIRST. All Rights Reserved.                              */
+/* Open Source Software - may be modified and shared by FRC teams. The code    */
+/* must be accompanied by the FIRST BSD license file in the root directory of  */
+/* the project.                                                                */
+/*                                                                             */
+/* Plays back a file made by AutoRecorder.  The file is memory mapped once    */
+/* by Open(); after that Step() only reads the map, so playback makes no      */
+/* garbage.  Step() follows the clock, not the loop count: it moves to the   */
+/* last record whose time has come, skipping records if a loop was late, so   */
+/* the robot stays on the recorded path through loop jitter.                  */
+/*-----------------------------------------------------------------------------*/
+
+package frc.robot;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+public class AutoPlayer
+{
+  private MappedByteBuffer map;
+  private int count = 0;
+  private int index = 0;                         // record in use
+  private long start_time;
+  private boolean done = true;
+
+
+  /*****************************************************************/
+  /* Open() - map the recording.  Throws if it isn't a good file.  */
+  /*****************************************************************/
+  public void Open( File file ) throws IOException
+  {
+    try( FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ) )
+    {
+      MappedByteBuffer m = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      m.order(ByteOrder.LITTLE_ENDIAN);
+      if( channel.size() < AutoRecorder.HeaderSize || m.getInt(0) != AutoRecorder.Magic
+          || m.getInt(4) != AutoRecorder.Version || m.getInt(8) != AutoRecorder.RecordSize )
+        throw new IOException("not an auto recording: " + file);
+      int n = m.getInt(AutoRecorder.CountOffset);
+      if( n < 0 || AutoRecorder.HeaderSize + (long)n * AutoRecorder.RecordSize > channel.size() )
+        throw new IOException("auto recording is cut off: " + file);
+      map = m;
+      count = n;
+      done = true;
+    }
+    System.out.println( "AutoPlayer loaded " + count + " records from " + file);
+  }
+
+
+  /*****************************************************************/
+  /* Start() - play from the first record at now.                  */
+  /*****************************************************************/
+  public void Start( long now )
+  {
+    start_time = now;
+    index = 0;
+    done = (count == 0);
+  }
+
+
+  /*****************************************************************/
+  /* Step() - move to the record for now.  Returns true when the   */
+  /*          recording is over.                                   */
+  /*****************************************************************/
+  public boolean Step( long now )
+  {
+    if( done )
+      return true;
+    long micros = (now - start_time) / 1000;
+    while( index + 1 < count && Time(index + 1) <= micros )
+      index++;
+    if( index + 1 >= count && micros > Time(index) )
+      done = true;
+    return done;
+  }
+
+
+  public void Stop()
+  {
+    done = true;
+  }
+
+  public boolean Is_Loaded()
+  {
+    return map != null;
+  }
+
+  public boolean Is_Done()
+  {
+    return done;
+  }
+
+  public double Get_Drive()
+  {
+    return map.getFloat(At(index) + 4);
+  }
+
+  public double Get_Turn()
+  {
+    return map.getFloat(At(index) + 8);
+  }
+
+  public double Get_Intake()
+  {
+    return map.getFloat(At(index) + 12);
+  }
+
+  public double Get_Winch()
+  {
+    return map.getFloat(At(index) + 16);
+  }
+
+  public int Get_Buttons()
+  {
+    return map.getInt(At(index) + 20);
+  }
+
+  private int Time( int record )
+  {
+    return map.getInt(At(record));
+  }
+
+  private static int At( int record )
+  {
+    return AutoRecorder.HeaderSize + record * AutoRecorder.RecordSize;
+  }
+}
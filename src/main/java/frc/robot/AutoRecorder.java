@@ -0,0 +1,177 @@
+/*-----------------------------------------------------------------------------*/
+/* Copyright (c) 2018 FIRST. All Rights Reserved.                              */
+/* Open Source Software - may be modified and shared by FRC teams. The code    */
+/* must be accompanied by the FIRST BSD license file in the root directory of  */
+/* the project.                                                                */
+/*                                                                             */
+/* Records what the driver commanded each loop during a practice run, so     */
+/* AutoPlayer can do it again in autonomous.  Records go into a direct       */
+/* buffer made full size once, so starting, recording and stopping on the    */
+/* loop are only puts and a hand off: no allocation and no file I/O on the   */
+/* control loop.  Stop() hands the buffer to a saver thread, which writes it */
+/* as <name>.tmp, forces it to the flash and renames it over the auto file,  */
+/* so a run that is cut off never replaces a good recording.  A new run      */
+/* can't start until the last one is saved, a few msec. later.  Copy the     */
+/* file from /home/lvuser/deploy into src/main/deploy to keep it across      */
+/* deploys.                                                                  */
+/*                                                                             */
+/* Header (little endian):                                                     */
+/*    0 int   Magic                                                            */
+/*    4 int   Version                                                          */
+/*    8 int   RecordSize                                                       */
+/*   12 int   record count                                                     */
+/* Record:                                                                     */
+/*    0 int   time since the start, microseconds                               */
+/*    4 float drive command                                                    */
+/*    8 float turn command                                                     */
+/*   12 float ball intake speed                                                */
+/*   16 float winch speed                                                      */
+/*   20 int   leftstick buttons, debounced (cylinder commands)                 */
+/*-----------------------------------------------------------------------------*/
+
+package frc.robot;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.LockSupport;
+
+public class AutoRecorder
+{
+  static final int Magic = 0x43455241;           // "AREC"
+  static final int Version = 1;
+  static final int HeaderSize = 16;
+  static final int RecordSize = 24;
+  static final int CountOffset = 12;
+  final int MaxRecords = 1000;                   // 20 seconds at 50 loops per second
+
+  private final File file;
+  private final File temp;
+  private final ByteBuffer records = ByteBuffer.allocateDirect(HeaderSize + MaxRecords * RecordSize)
+                                               .order(ByteOrder.LITTLE_ENDIAN);
+  private final Thread saver;
+  private volatile boolean saving = false;       // records belongs to the saver until it is done
+  private boolean recording = false;
+  private int count;
+  private long start_time;
+
+
+  public AutoRecorder( File file )
+  {
+    this.file = file;
+    temp = new File(file.getPath() + ".tmp");
+    records.putInt(0, Magic);
+    records.putInt(4, Version);
+    records.putInt(8, RecordSize);
+    saver = new Thread(this::Save_Loop, "AutoRecorder");
+    saver.setDaemon(true);
+    saver.start();
+  }
+
+
+  /*****************************************************************/
+  /* Start() - start an empty recording at now.  Returns false if  */
+  /*           the last one is still being saved.                  */
+  /*****************************************************************/
+  public boolean Start( long now )
+  {
+    if( recording )
+      Stop();
+    if( saving )
+      return false;
+    records.putInt(CountOffset, 0);
+    count = 0;
+    start_time = now;
+    recording = true;
+    return true;
+  }
+
+
+  /*****************************************************************/
+  /* Record() - add one loop.  Returns false once the file is full */
+  /*            or not started.                                    */
+  /*****************************************************************/
+  public boolean Record( long now, double drive, double turn, double intake, double winch, int buttons )
+  {
+    if( !recording || count >= MaxRecords )
+      return false;
+    int at = HeaderSize + count * RecordSize;
+    records.putInt(at, (int)((now - start_time) / 1000));
+    records.putFloat(at + 4, (float)drive);
+    records.putFloat(at + 8, (float)turn);
+    records.putFloat(at + 12, (float)intake);
+    records.putFloat(at + 16, (float)winch);
+    records.putInt(at + 20, buttons);
+    count++;
+    records.putInt(CountOffset, count);
+    return true;
+  }
+
+
+  /*****************************************************************/
+  /* Stop() - end the recording and hand it to the saver.          */
+  /*****************************************************************/
+  public void Stop()
+  {
+    if( !recording )
+      return;
+    recording = false;
+    saving = true;                               // after the last put, so the saver sees them all
+    LockSupport.unpark(saver);
+  }
+
+
+  public boolean Is_Recording()
+  {
+    return recording;
+  }
+
+  public boolean Is_Saving()
+  {
+    return saving;
+  }
+
+
+  /*****************************************************************/
+  /* Save_Loop() - background thread, save each stopped recording. */
+  /*****************************************************************/
+  private void Save_Loop()
+  {
+    while( true )
+    {
+      LockSupport.park(this);
+      if( !saving )
+        continue;
+      try
+      {
+        Save();
+      }
+      catch( IOException e )
+      {
+        System.out.println( "AutoRecorder not saved: " + e);
+      }
+      saving = false;
+    }
+  }
+
+  /* Write the records made to the temp file, then put it in place of the auto file. */
+  private void Save() throws IOException
+  {
+    int n = records.getInt(CountOffset);
+    ByteBuffer out = records.duplicate();
+    out.limit(HeaderSize + n * RecordSize);
+    try( FileChannel channel = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE,
+                                                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE) )
+    {
+      while( out.hasRemaining() )
+        channel.write(out);
+      channel.force(true);
+    }
+    Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    System.out.println( "AutoRecorder saved " + n + " records to " + file);
+  }
+}
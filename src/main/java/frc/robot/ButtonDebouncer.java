@@ -0,0 +1,163 @@
+/*-----------------------------------------------------------------------------*/
+/* Copyright (c) 2018 FIRST. All Rights Reserved.                              */
+/* Open Source Software - may be modified and shared by FRC teams. The code    */
+/* must be accompanied by the FIRST BSD license file in the root directory of  */
+/* the project.                                                                */
+/*                                                                             */
+/* Debounces every button of both joysticks at once.  The left stick's        */
+/* buttons are bits 0-31 of one long and the right stick's are bits 32-63.    */
+/* Each button has a 5 bit counter, stored "vertically": bit n of every        */
+/* button's counter is in word count[n], so one add or compare on the words  */
+/* updates all 64 counters together with no per-button loop.                 */
+/*                                                                             */
+/* A normal button changes after it has read the new way for its whole       */
+/* debounce time.  A leading edge button changes on the first sample that    */
+/* reads the new way, then ignores the button until its debounce time is     */
+/* over, so one press acts right away but still only acts once.              */
+/*                                                                             */
+/* Update() once per loop, then Is_Down(), Pressed() and Released().          */
+/* Buttons that are not configured pass straight through.                     */
+/*-----------------------------------------------------------------------------*/
+
+package frc.robot;
+
+public class ButtonDebouncer
+{
+  static final int Left = 0;                     // stick numbers
+  static final int Right = 1;
+  static final int CountBits = 5;
+  static final int MaxCount = (1 << CountBits) - 1;
+
+  private final double sample_ms;                // loop period, msec.
+  private final long[] count = new long[CountBits];
+  private final long[] limit = new long[CountBits];    // samples to change (normal) or hold (leading)
+  private long leading = 0;                      // leading edge buttons
+  private long stable = 0;                       // debounced buttons
+  private long pressed = 0;                      // edges from the last Update()
+  private long released = 0;
+
+
+  public ButtonDebouncer( double sample_period )
+  {
+    sample_ms = sample_period * 1000.0;
+    limit[0] = ~0L;                              // every button: change on the first sample
+  }
+
+
+  /*****************************************************************/
+  /* Configure() - set the debounce time of one button.            */
+  /*   stick        - Left or Right                                */
+  /*   button       - 1 = first button                             */
+  /*   debounce_ms  - normal: how long the button must read the    */
+  /*                  new way.  Leading edge: how long to ignore   */
+  /*                  the button after it changes.                 */
+  /*****************************************************************/
+  public void Configure( int stick, int button, double debounce_ms, boolean leading_edge )
+  {
+    long bit = Bit(stick, button);
+    int samples = (int)Math.round(debounce_ms / sample_ms);
+    if( !leading_edge )
+      samples++;                                 // the first sample that reads the new way counts
+    if( samples < 1 )
+      samples = 1;
+    if( samples > MaxCount )
+      throw new IllegalStateException("ButtonDebouncer: " + debounce_ms + " msec. is too long");
+
+    for( int n = 0; n < CountBits; n++ )
+    {
+      if( ((samples >> n) & 1) != 0 )
+        limit[n] |= bit;
+      else
+        limit[n] &= ~bit;
+      count[n] &= ~bit;
+    }
+    if( leading_edge )
+      leading |= bit;
+    else
+      leading &= ~bit;
+  }
+
+
+  /*****************************************************************/
+  /* Update() - take one sample of both sticks' buttons.           */
+  /*****************************************************************/
+  public void Update( int left_buttons, int right_buttons )
+  {
+    long raw = (left_buttons & 0xFFFFFFFFL) | ((long)right_buttons << 32);
+    long diff = raw ^ stable;
+    long busy = 0;                               // counter not zero
+    for( int n = 0; n < CountBits; n++ )
+      busy |= count[n];
+
+    // Normal buttons count while they differ and start over when they agree.
+    // Leading edge buttons count from the change until the hold is over.
+    long restart = ~diff & ~leading;
+    long carry = (diff & ~leading) | (leading & (busy | diff));
+    long at_limit = ~0L;
+    for( int n = 0; n < CountBits; n++ )
+    {
+      long c = count[n] & ~restart;
+      long next_carry = c & carry;
+      c ^= carry;
+      carry = next_carry;
+      count[n] = c;
+      at_limit &= ~(c ^ limit[n]);
+    }
+
+    long flip = (at_limit & diff & ~leading) | (leading & diff & ~busy);
+    for( int n = 0; n < CountBits; n++ )
+      count[n] &= ~at_limit;
+
+    stable ^= flip;
+    pressed = flip & stable;
+    released = flip & ~stable;
+  }
+
+
+  /*****************************************************************/
+  /* Is_Down() / Pressed() / Released() - debounced level, and the */
+  /*                   edges found by the last Update().           */
+  /*****************************************************************/
+  public boolean Is_Down( int stick, int button )
+  {
+    return (stable & Bit(stick, button)) != 0;
+  }
+
+  public boolean Pressed( int stick, int button )
+  {
+    return (pressed & Bit(stick, button)) != 0;
+  }
+
+  public boolean Released( int stick, int button )
+  {
+    return (released & Bit(stick, button)) != 0;
+  }
+
+
+  /*****************************************************************/
+  /* Get_Buttons() - all debounced buttons of one stick, bit 0 =   */
+  /*                 button 1, like HidSnapshot.getButtons().      */
+  /*****************************************************************/
+  public int Get_Buttons( int stick )
+  {
+    return (int)(stable >>> (32 * stick));
+  }
+
+
+  /*****************************************************************/
+  /* Reset() - every button up, no counts and no edges.            */
+  /*****************************************************************/
+  public void Reset()
+  {
+    for( int n = 0; n < CountBits; n++ )
+      count[n] = 0;
+    stable = 0;
+    pressed = 0;
+    released = 0;
+  }
+
+  private static long Bit( int stick, int button )
+  {
+    return 1L << (32 * stick + button - 1);
+  }
+}
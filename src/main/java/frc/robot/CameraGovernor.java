@@ -0,0 +1,142 @@
+/*-----------------------------------------------------------------------------*/
+/* Copyright (c) 2018 FIRST. All Rights Reserved.                              */
+/* Open Source Software - may be modified and shared by FRC teams. The code    */
+/* must be accompanied by the FIRST BSD license file in the root directory of  */
+/* the project.                                                                */
+/*                                                                             */
+/* Picks the resolution, FPS and JPEG quality of each camera stream while the */
+/* robot runs.  The camera the driver is using may stream at the best level; */
+/* the others are held to a thumbnail.  Every EvaluatePeriod the governor     */
+/* looks at the control loop's average time over the period, as a part of   */
+/* the loop budget, and at the total camera data rate.  If either is too     */
+/* high every camera steps down one level, and when both are well under     */
+/* their limits they step back up.                                           */
+/* Switching cameras applies the new levels right away.                       */
+/*-----------------------------------------------------------------------------*/
+
+package frc.robot;
+
+public class CameraGovernor
+{
+  // Stream levels, best first:   width  height  fps  quality
+  private static final int[][] LEVELS = {
+                                { 640,   480,    30,  60 },
+                                { 320,   240,    30,  50 },
+                                { 320,   240,    15,  40 },
+                                { 160,   120,    15,  30 },
+                                { 160,   120,     5,  20 },
+  };
+  static final int LevelCount = LEVELS.length;
+
+  final int ThumbnailLevel = 3;                  // best level for a camera the driver isn't using
+  final double BandwidthCap = 3.0e6 / 8;         // bytes/sec for all cameras, FMS limit is 4 Mbit/s
+  final double LoopBusy = 0.75;                  // step down above this part of the loop budget
+  final double LoopIdle = 0.50;                  // step up below this part of the loop budget
+  final double EvaluatePeriod = 1.0;             // seconds between level changes
+
+  private final RobotHardware.Camera[] cameras;
+  private final int[] levels;
+  private final long budget_nanos;
+  private final long evaluate_nanos = (long)(EvaluatePeriod * 1e9);
+  private int active = 0;
+  private int degrade = 0;                       // levels every camera is held below its best
+  private long loop_total = 0;                   // sum of the loop averages since the last level change
+  private int loop_samples = 0;
+  private double data_rate = 0.0;
+  private long last_evaluate;
+  private boolean started = false;
+
+
+  public CameraGovernor( RobotHardware.Camera[] cameras, double loop_budget )
+  {
+    this.cameras = cameras;
+    levels = new int[cameras.length];
+    for( int i = 0; i < levels.length; i++ )
+      levels[i] = -1;                            // not set yet
+    budget_nanos = (long)(loop_budget * 1e9);
+  }
+
+
+  /*****************************************************************/
+  /* Set_Active() - the camera the driver is looking at.           */
+  /*****************************************************************/
+  public void Set_Active( int camera )
+  {
+    if( camera != active )
+    {
+      active = camera;
+      Apply();
+    }
+  }
+
+  public int Get_Active()
+  {
+    return active;
+  }
+
+  public int Get_Level( int camera )
+  {
+    return levels[camera];
+  }
+
+  public double Get_Data_Rate()
+  {
+    return data_rate;
+  }
+
+
+  /*****************************************************************/
+  /* Update() - call with the time and the average loop time since */
+  /*            the last call.  Only acts every EvaluatePeriod.    */
+  /*****************************************************************/
+  public void Update( long now, long loop_nanos )
+  {
+    if( loop_nanos > 0 )
+    {
+      loop_total += loop_nanos;
+      loop_samples++;
+    }
+    if( !started )
+    {
+      started = true;
+      last_evaluate = now;
+      Apply();
+      return;
+    }
+    if( now - last_evaluate < evaluate_nanos )
+      return;
+    last_evaluate = now;
+
+    data_rate = 0.0;
+    for( int i = 0; i < cameras.length; i++ )
+      data_rate += cameras[i].getDataRate();
+    double loop_use = (loop_samples == 0) ? 0.0 : (double)loop_total / loop_samples / budget_nanos;
+    loop_total = 0;
+    loop_samples = 0;
+
+    if( (loop_use > LoopBusy || data_rate > BandwidthCap) && degrade < LevelCount - 1 )
+      degrade++;
+    else if( loop_use < LoopIdle && data_rate < BandwidthCap * 0.8 && degrade > 0 )
+      degrade--;
+    Apply();
+  }
+
+
+  /*****************************************************************/
+  /* Apply() - set each camera to its level if it changed.         */
+  /*****************************************************************/
+  private void Apply()
+  {
+    for( int i = 0; i < cameras.length; i++ )
+    {
+      int best = (i == active) ? 0 : ThumbnailLevel;
+      int level = Math.min(LevelCount - 1, best + degrade);
+      if( level != levels[i] )
+      {
+        int[] l = LEVELS[level];
+        cameras[i].setMode(l[0], l[1], l[2], l[3]);
+        levels[i] = level;
+      }
+    }
+  }
+}
@@ -0,0 +1,242 @@
+/*-----------------------------------------------------------------------------*/
+/* Copyright (c) 2018 FIRST. All Rights Reserved.                              */
+/* Open Source Software - may be modified and shared by FRC teams. The code    */
+/* must be accompanied by the FIRST BSD license file in the root directory of  */
+/* the project.                                                                */
+/*                                                                             */
+/* Runs the extend / retract state machine for every cylinder from one table. */
+/* Each state has a single way out: a condition (button pressed, actuation    */
+/* time passed, button released), an action on the cylinder, and the next     */
+/* state.  The state of every cylinder lives in an array indexed by the id   */
+/* returned from Add(), so Step() runs all cylinders in one loop.  Buttons    */
+/* are read from the ButtonDebouncer and each cylinder's actuation timer is  */
+/* on the shared TimingWheel.  A cylinder that needs air fires when the     */
+/* pressure is ok, or sooner when the AirBudget says there is air enough,    */
+/* and waits the stroke time the budget learned in place of its actuation   */
+/* time once it has one.                                                     */
+/* A new actuator only needs one more Add() call.                             */
+/*-----------------------------------------------------------------------------*/
+
+package frc.robot;
+
+public class CylinderEngine
+{
+  /* Drives the valves of one cylinder, true = extend. */
+  interface Actuator
+  {
+    void Set( boolean extend );
+  }
+
+  // Conditions to leave a state
+  static final int NEVER = 0;
+  static final int PRESSED = 1;                  // debounced button down (and enough air)
+  static final int TIME_UP = 2;                  // actuation time passed
+  static final int RELEASED = 3;                 // debounced button up
+
+  // Actions when leaving a state
+  static final int NONE = 0;
+  static final int EXTEND = 1;
+  static final int RETRACT = 2;
+
+  private static final CylinderStates[] STATES = CylinderStates.values();
+  private static final int[] CONDITION = new int[STATES.length];
+  private static final int[] ACTION = new int[STATES.length];
+  private static final int[] NEXT = new int[STATES.length];
+  private static final String[] LABEL = new String[STATES.length];
+
+  static
+  {
+    //   state                                    condition  action   next state                               dashboard on entry
+    Row( CylinderStates.idle,                     NEVER,     NONE,    CylinderStates.idle,                     null );
+    Row( CylinderStates.wait_for_extend_cmd,      PRESSED,   EXTEND,  CylinderStates.wait_for_extend,          null );
+    Row( CylinderStates.wait_for_extend,          TIME_UP,   NONE,    CylinderStates.wait_for_extend_release,  "Extending" );
+    Row( CylinderStates.wait_for_extend_release,  RELEASED,  NONE,    CylinderStates.wait_for_retract_cmd,     "Extended" );
+    Row( CylinderStates.wait_for_retract_cmd,     PRESSED,   RETRACT, CylinderStates.wait_for_retract,         null );
+    Row( CylinderStates.wait_for_retract,         TIME_UP,   NONE,    CylinderStates.wait_for_retract_release, "Retracting" );
+    Row( CylinderStates.wait_for_retract_release, RELEASED,  NONE,    CylinderStates.wait_for_extend_cmd,      "Retracted" );
+  }
+
+  private static void Row( CylinderStates state, int condition, int action, CylinderStates next, String label )
+  {
+    CONDITION[state.ordinal()] = condition;
+    ACTION[state.ordinal()] = action;
+    NEXT[state.ordinal()] = next.ordinal();
+    LABEL[state.ordinal()] = label;
+  }
+
+  final int MaxCylinders = 8;
+
+  private final Telemetry telemetry;
+  private final TimingWheel timers;
+  private final ButtonDebouncer debouncer;
+  private final int stick;
+  private AirBudget air;                         // null: only the pressure ok level counts
+  private int count = 0;
+
+  // Per cylinder configuration
+  private final String[] names = new String[MaxCylinders];
+  private final Actuator[] actuators = new Actuator[MaxCylinders];
+  private final int[] button_masks = new int[MaxCylinders];
+  private final boolean[] needs_air = new boolean[MaxCylinders];
+  private final double[] actuation_times = new double[MaxCylinders];
+  private final int[] timer_ids = new int[MaxCylinders];
+
+  // Per cylinder state
+  private final int[] states = new int[MaxCylinders];
+
+
+  public CylinderEngine( Telemetry tlm, TimingWheel timing, ButtonDebouncer buttons, int button_stick )
+  {
+    telemetry = tlm;
+    timers = timing;
+    debouncer = buttons;
+    stick = button_stick;
+  }
+
+
+  /*****************************************************************/
+  /* Add() - configure one cylinder and return its id.             */
+  /*   button         - joystick button that toggles the cylinder  */
+  /*   needs_air      - only actuate when pressure is ok           */
+  /*   debounce_ms    - button debounce time, msec.                */
+  /*   leading_edge   - act on the first sample of a press         */
+  /*   actuation_time - seconds the cylinder takes to move         */
+  /*****************************************************************/
+  public int Add( String name, int button, boolean needs_air, double debounce_ms, boolean leading_edge,
+                  double actuation_time, Actuator actuator )
+  {
+    if( count >= MaxCylinders )
+      throw new IllegalStateException("CylinderEngine: too many cylinders, adding " + name);
+    int id = count++;
+    names[id] = name;
+    actuators[id] = actuator;
+    button_masks[id] = 1 << (button - 1);
+    this.needs_air[id] = needs_air;
+    debouncer.Configure(stick, button, debounce_ms, leading_edge);
+    actuation_times[id] = actuation_time;
+    timer_ids[id] = timers.Add(name);
+    states[id] = CylinderStates.wait_for_extend_cmd.ordinal();
+    return id;
+  }
+
+
+  /*****************************************************************/
+  /* Set_Actuation_Time() - seconds the cylinder takes to move,    */
+  /*                        used from its next actuation until the */
+  /*                        air budget has timed a stroke.         */
+  /*****************************************************************/
+  public void Set_Actuation_Time( int id, double actuation_time )
+  {
+    actuation_times[id] = actuation_time;
+  }
+
+
+  /*****************************************************************/
+  /* Set_Air_Budget() - let cylinders that need air fire when the  */
+  /*                    budget predicts enough air for the stroke, */
+  /*                    and use its learned stroke times.          */
+  /*                    Cylinder ids are the budget's ids.         */
+  /*****************************************************************/
+  public void Set_Air_Budget( AirBudget budget )
+  {
+    air = budget;
+  }
+
+
+  /*****************************************************************/
+  /* Reset() - retract every cylinder and wait for an extend cmd.  */
+  /*****************************************************************/
+  public void Reset()
+  {
+    for( int i = 0; i < count; i++ )
+    {
+      actuators[i].Set(false);
+      states[i] = CylinderStates.wait_for_extend_cmd.ordinal();
+      timers.Cancel(timer_ids[i]);
+    }
+  }
+
+
+  /*****************************************************************/
+  /* Step() - run one loop of every cylinder's state machine.      */
+  /*   buttons  - debounced buttons, bit 0 = button 1.  Left out,  */
+  /*              they are read from the ButtonDebouncer.          */
+  /*   air_ok   - tank pressure is ok, or the air budget may say   */
+  /*              there is enough for one stroke                   */
+  /*   now      - loop time in nanoseconds                         */
+  /*****************************************************************/
+  public void Step( boolean air_ok, long now )
+  {
+    Step(debouncer.Get_Buttons(stick), air_ok, now);
+  }
+
+  public void Step( int buttons, boolean air_ok, long now )
+  {
+    for( int i = 0; i < count; i++ )
+    {
+      int state = states[i];
+      boolean pressed = (buttons & button_masks[i]) != 0;
+      boolean go = false;
+
+      switch( CONDITION[state] )
+      {
+        case PRESSED:
+          go = pressed && (air_ok || !needs_air[i]
+                           || (air != null && air.Can_Actuate(i, ACTION[state] == EXTEND,
+                                                              Actuation_Time(i, ACTION[state] == EXTEND))));
+          break;
+
+        case RELEASED:
+          go = !pressed;
+          break;
+
+        case TIME_UP:
+          go = timers.Expired(timer_ids[i]);
+          break;
+
+        default:
+          break;
+      }
+
+      if( go )
+      {
+        switch( ACTION[state] )
+        {
+          case EXTEND:
+          case RETRACT:
+            boolean extend = (ACTION[state] == EXTEND);
+            double time = Actuation_Time(i, extend);
+            actuators[i].Set(extend);
+            timers.Start(timer_ids[i], time, now);
+            if( needs_air[i] && air != null )
+              air.Actuated(i, extend, actuation_times[i], now);   // over the guess, not the learned time
+            break;
+
+          default:
+            break;
+        }
+        states[i] = NEXT[state];
+        if( LABEL[states[i]] != null )
+          telemetry.putString(names[i], LABEL[states[i]]);
+      }
+    }
+  }
+
+
+  /* Learned stroke time of cylinder i when the air budget has one. */
+  private double Actuation_Time( int i, boolean extend )
+  {
+    if( needs_air[i] && air != null )
+      return air.Actuation_Time(i, extend, actuation_times[i]);
+    return actuation_times[i];
+  }
+
+
+  /*****************************************************************/
+  /* Get_State() - current state of one cylinder.                  */
+  /*****************************************************************/
+  public CylinderStates Get_State( int id )
+  {
+    return STATES[states[id]];
+  }
+}
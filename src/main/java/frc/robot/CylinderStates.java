@@ -0,0 +1,19 @@
+/*----------------------------------------------------------------------------*/
+/* Copyright (c) 2018 FIRST. All Rights Reserved.                             */
+/* Open Source Software - may be modified and shared by FRC teams. The code   */
+/* must be accompanied by the FIRST BSD license file in the root directory of */
+/* the project.                                                               */
+/*----------------------------------------------------------------------------*/
+
+package frc.robot;
+
+enum CylinderStates 
+{
+  idle,
+  wait_for_extend_cmd,
+  wait_for_extend,
+  wait_for_extend_release,
+  wait_for_retract_cmd,
+  wait_for_retract,  
+  wait_for_retract_release
+};
@@ -0,0 +1,157 @@
+/*-----------------------------------------------------------------------------*/
+/* Copyright (c) 2018 FIRST. All Rights Reserved.                              */
+/* Open Source Software - may be modified and shared by FRC teams. The code    */
+/* must be accompanied by the FIRST BSD license file in the root directory of  */
+/* the project.                                                                */
+/*                                                                             */
+/* Writes one fixed size binary record per loop into a memory mapped ring     */
+/* file, so we can see what the pressure, cylinders and drive were doing when */
+/* something went wrong in a match.  The file is made full size when opened,  */
+/* and recording is only a few absolute puts into the map: no allocation and  */
+/* no disk I/O on the control loop.  A background thread calls force() every  */
+/* FlushPeriod so the data reaches the disk even if the robot loses power.    */
+/* After a reboot recording continues after the last record in the file.     */
+/* Record times are System.nanoTime(), which starts again from an arbitrary   */
+/* value at each boot, so every record carries the boot it was written in     */
+/* and the decoder times records within their boot.                           */
+/* FlightRecorderDecoder turns the file into CSV on a desktop.                */
+/*                                                                             */
+/* Header (little endian):                                                     */
+/*    0 int   Magic                                                            */
+/*    4 int   Version                                                          */
+/*    8 int   RecordSize                                                       */
+/*   12 int   capacity (records)                                               */
+/*   16 long  next sequence number                                             */
+/*   24 int   boot number, one more each time the file is opened               */
+/* Record:                                                                     */
+/*    0 long  sequence number                                                  */
+/*    8 long  time, nanoseconds                                                */
+/*   16 float pressure volts                                                   */
+/*   20 byte  pressure state, front lift, rear lift, ball gateway states       */
+/*   24 float drive command                                                    */
+/*   28 float turn command                                                     */
+/*   32 float ball intake speed                                                */
+/*   36 float winch position, inches                                          */
+/*   40 int   boot number                                                      */
+/*-----------------------------------------------------------------------------*/
+
+package frc.robot;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+public class FlightRecorder
+{
+  static final int Magic = 0x43455246;           // "FREC"
+  static final int Version = 3;
+  static final int HeaderSize = 32;
+  static final int RecordSize = 48;
+  static final int NextSequenceOffset = 16;
+  static final int BootOffset = 24;
+  final double FlushPeriod = 1.0;                // seconds between force() calls
+
+  private final FileChannel channel;
+  private final MappedByteBuffer map;
+  private final int capacity;
+  private final int boot;
+  private long sequence;
+  private volatile boolean running = true;
+
+
+  /*****************************************************************/
+  /* FlightRecorder() - open or create the ring file with room for */
+  /*                    capacity records and start the flusher.    */
+  /*****************************************************************/
+  public FlightRecorder( File file, int capacity ) throws IOException
+  {
+    this.capacity = capacity;
+    channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                               StandardOpenOption.READ, StandardOpenOption.WRITE);
+    map = channel.map(FileChannel.MapMode.READ_WRITE, 0, HeaderSize + (long)capacity * RecordSize);
+    map.order(ByteOrder.LITTLE_ENDIAN);
+
+    if( map.getInt(0) == Magic && map.getInt(4) == Version
+        && map.getInt(8) == RecordSize && map.getInt(12) == capacity )
+    {
+      sequence = map.getLong(NextSequenceOffset);      // keep the records from before a reboot
+      boot = map.getInt(BootOffset) + 1;
+    }
+    else
+    {
+      map.putInt(0, Magic);
+      map.putInt(4, Version);
+      map.putInt(8, RecordSize);
+      map.putInt(12, capacity);
+      sequence = 0;
+      map.putLong(NextSequenceOffset, sequence);
+      boot = 0;
+    }
+    map.putInt(BootOffset, boot);
+
+    Thread flusher = new Thread(this::Flush_Loop, "FlightRecorder");
+    flusher.setDaemon(true);
+    flusher.start();
+    System.out.println( "FlightRecorder " + file + " at record " + sequence + ", boot " + boot);
+  }
+
+
+  /*****************************************************************/
+  /* Record() - write one loop's record over the oldest one.       */
+  /*****************************************************************/
+  public void Record( long time, double pressure_volts, int pressure_state,
+                      int front_lift, int rear_lift, int ball_gateway,
+                      double drive, double turn, double intake, double winch )
+  {
+    int at = HeaderSize + (int)(sequence % capacity) * RecordSize;
+    map.putLong(at, sequence);
+    map.putLong(at + 8, time);
+    map.putFloat(at + 16, (float)pressure_volts);
+    map.put(at + 20, (byte)pressure_state);
+    map.put(at + 21, (byte)front_lift);
+    map.put(at + 22, (byte)rear_lift);
+    map.put(at + 23, (byte)ball_gateway);
+    map.putFloat(at + 24, (float)drive);
+    map.putFloat(at + 28, (float)turn);
+    map.putFloat(at + 32, (float)intake);
+    map.putFloat(at + 36, (float)winch);
+    map.putInt(at + 40, boot);
+    sequence++;
+    map.putLong(NextSequenceOffset, sequence);
+  }
+
+
+  /*****************************************************************/
+  /* Close() - stop the flusher and write everything to disk.      */
+  /*****************************************************************/
+  public void Close() throws IOException
+  {
+    running = false;
+    map.force();
+    channel.close();
+  }
+
+
+  /*****************************************************************/
+  /* Flush_Loop() - background thread, force() the map to disk     */
+  /*                every FlushPeriod.                             */
+  /*****************************************************************/
+  private void Flush_Loop()
+  {
+    while( running )
+    {
+      try
+      {
+        Thread.sleep((long)(FlushPeriod * 1000));
+        if( running )
+          map.force();
+      }
+      catch( InterruptedException e )
+      {
+        return;
+      }
+    }
+  }
+}
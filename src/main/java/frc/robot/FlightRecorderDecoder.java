@@ -0,0 +1,76 @@
+/*-----------------------------------------------------------------------------*/
+/* Copyright (c) 2018 FIRST. All Rights Reserved.                              */
+/* Open Source Software - may be modified and shared by FRC teams. The code    */
+/* must be accompanied by the FIRST BSD license file in the root directory of  */
+/* the project.                                                                */
+/*                                                                             */
+/* Desktop tool: turns a FlightRecorder file copied off the robot into CSV,   */
+/* oldest record first, with state names instead of numbers.  time_s is       */
+/* seconds from the first record of the same boot, as the recorder's clock    */
+/* starts again at every boot.                                                */
+/*     ./gradlew decodeFlight -Pin=flight.rec -Pout=flight.csv                 */
+/*-----------------------------------------------------------------------------*/
+
+package frc.robot;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+public final class FlightRecorderDecoder
+{
+  private FlightRecorderDecoder()
+  {
+  }
+
+  public static void main( String... args ) throws IOException
+  {
+    if( args.length < 2 )
+    {
+      System.out.println("usage: FlightRecorderDecoder <recorder file> <csv file>");
+      return;
+    }
+
+    ByteBuffer b = ByteBuffer.wrap(Files.readAllBytes(Paths.get(args[0])));
+    b.order(ByteOrder.LITTLE_ENDIAN);
+    if( b.getInt(0) != FlightRecorder.Magic || b.getInt(4) != FlightRecorder.Version
+        || b.getInt(8) != FlightRecorder.RecordSize )
+      throw new IOException(args[0] + " is not a version " + FlightRecorder.Version + " flight recorder file");
+
+    int capacity = b.getInt(12);
+    long next = b.getLong(FlightRecorder.NextSequenceOffset);
+    long first = Math.max(0, next - capacity);
+    PressureStates[] pressure = PressureStates.values();
+    CylinderStates[] cylinder = CylinderStates.values();
+    long start_time = 0;
+    int boot = 0;
+    boolean started = false;
+
+    try( PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(args[1]))) )
+    {
+      out.println("sequence,boot,time_s,pressure_volts,pressure_state,front_lift,rear_lift,ball_gateway,drive,turn,intake,winch");
+      for( long seq = first; seq < next; seq++ )
+      {
+        int at = FlightRecorder.HeaderSize + (int)(seq % capacity) * FlightRecorder.RecordSize;
+        if( b.getLong(at) != seq )
+          continue;                              // not written, or torn by a power loss
+        long time = b.getLong(at + 8);
+        if( !started || b.getInt(at + 40) != boot )
+        {
+          start_time = time;                     // first record of this boot
+          boot = b.getInt(at + 40);
+          started = true;
+        }
+        out.printf("%d,%d,%.3f,%.3f,%s,%s,%s,%s,%.3f,%.3f,%.3f,%.2f%n",
+                   seq, boot, (time - start_time) * 1e-9, b.getFloat(at + 16),
+                   pressure[b.get(at + 20)], cylinder[b.get(at + 21)],
+                   cylinder[b.get(at + 22)], cylinder[b.get(at + 23)],
+                   b.getFloat(at + 24), b.getFloat(at + 28), b.getFloat(at + 32),
+                   b.getFloat(at + 36));
+      }
+    }
+    System.out.println("Wrote " + (next - first) + " records to " + args[1]);
+  }
+}
@@ -0,0 +1,77 @@
+/*-----------------------------------------------------------------------------*/
+/* Copyright (c) 2018 FIRST. All Rights Reserved.                              */
+/* Open Source Software - may be modified and shared by FRC teams. The code    */
+/* must be accompanied by the FIRST BSD license file in the root directory of  */
+/* the project.                                                                */
+/*                                                                             */
+/* Holds one joystick's buttons and axes as read once at the start of a loop. */
+/* Buttons are packed into an int (bit 0 = button 1), axes are kept in a      */
+/* double array, and the capture time is kept in nanoseconds.  Controllers   */
+/* only read from the snapshot, so every controller sees the same input for  */
+/* the whole loop and none of them call into the HAL.                         */
+/*-----------------------------------------------------------------------------*/
+
+package frc.robot;
+
+public class HidSnapshot
+{
+  static final int MaxAxes = 6;
+
+  private int buttons;
+  private final double[] axes = new double[MaxAxes];
+  private long timestamp;
+
+
+  /*****************************************************************/
+  /* Capture() - read all buttons and axes of stick.  Only         */
+  /*             RobotCore calls this, once per loop.              */
+  /*****************************************************************/
+  void Capture( RobotHardware.Stick stick, long now )
+  {
+    int count = Math.min(MaxAxes, stick.getAxisCount());
+
+    buttons = stick.getButtons();                // all buttons in one call
+    for( int i = 0; i < MaxAxes; i++ )
+    {
+      if( i < count )
+        axes[i] = stick.getRawAxis(i);
+      else
+        axes[i] = 0.0;
+    }
+    timestamp = now;
+  }
+
+
+  /*****************************************************************/
+  /* getRawButton() - button numbers start at 1, like Joystick.    */
+  /*****************************************************************/
+  public boolean getRawButton( int button )
+  {
+    return (buttons & (1 << (button - 1))) != 0;
+  }
+
+  public double getRawAxis( int axis )
+  {
+    return axes[axis];
+  }
+
+  public double getX()
+  {
+    return axes[0];
+  }
+
+  public double getY()
+  {
+    return axes[1];
+  }
+
+  public int getButtons()
+  {
+    return buttons;
+  }
+
+  public long getTimestamp()
+  {
+    return timestamp;
+  }
+}
@@ -0,0 +1,163 @@
+/*-----------------------------------------------------------------------------*/
+/* Copyright (c) 2018 FIRST. All Rights Reserved.                              */
+/* Open Source Software - may be modified and shared by FRC teams. The code    */
+/* must be accompanied by the FIRST BSD license file in the root directory of  */
+/* the project.                                                                */
+/*                                                                             */
+/* A joystick response curve worked out ahead of time into a float table of  */
+/* TableSize points from 0 to 1.  Apply() looks up |x| with linear            */
+/* interpolation and puts the sign back, so every curve costs the same one    */
+/* lookup per axis no matter how it was made:                                 */
+/*   linear  y = x                                                            */
+/*   square  y = x^2                                                          */
+/*   cubic   y = x^3                                                          */
+/*   expo    y = k x^3 + (1 - k) x, k from 0 (linear) to 1 (cubic)            */
+/*   spline  a smooth curve through points spaced evenly from x = 0 to 1,    */
+/*           that never overshoots them (monotone cubic)                      */
+/* Parse() makes a curve from its name, so TuningConfig can pick curves.      */
+/*-----------------------------------------------------------------------------*/
+
+package frc.robot;
+import java.util.function.DoubleUnaryOperator;
+
+public final class InputCurve
+{
+  static final int TableSize = 257;              // 256 steps from 0 to 1
+
+  public static final InputCurve Linear = new InputCurve("linear", x -> x);
+  public static final InputCurve Square = new InputCurve("square", x -> x * x);
+  public static final InputCurve Cubic = new InputCurve("cubic", x -> x * x * x);
+
+  private final String name;
+  private final float[] table = new float[TableSize];
+
+
+  private InputCurve( String name, DoubleUnaryOperator f )
+  {
+    this.name = name;
+    for( int i = 0; i < TableSize; i++ )
+      table[i] = (float)f.applyAsDouble((double)i / (TableSize - 1));
+  }
+
+
+  /*****************************************************************/
+  /* Apply() - the curve at x, -1.0 to 1.0.  Odd: f(-x) = -f(x).   */
+  /*****************************************************************/
+  public double Apply( double x )
+  {
+    double a = Math.abs(x);
+    double y;
+    if( a >= 1.0 )
+      y = table[TableSize - 1];
+    else
+    {
+      double at = a * (TableSize - 1);
+      int i = (int)at;
+      y = table[i] + (table[i + 1] - table[i]) * (at - i);
+    }
+    return (x < 0.0) ? -y : y;
+  }
+
+
+  public String Get_Name()
+  {
+    return name;
+  }
+
+
+  /*****************************************************************/
+  /* Expo() - blend of linear and cubic, k = 0 to 1.               */
+  /*****************************************************************/
+  public static InputCurve Expo( double k )
+  {
+    if( !(k >= 0.0 && k <= 1.0) )                 // also NaN
+      throw new IllegalArgumentException("expo must be 0 to 1: " + k);
+    return new InputCurve("expo " + k, x -> k * x * x * x + (1.0 - k) * x);
+  }
+
+
+  /*****************************************************************/
+  /* Spline() - monotone cubic through points[0] at x = 0 up to    */
+  /*            points[n-1] at x = 1.  points[0] must be 0, as     */
+  /*            Apply() mirrors the curve and anything else is a   */
+  /*            step at stick center, and points must not go down. */
+  /*****************************************************************/
+  public static InputCurve Spline( double[] points )
+  {
+    int n = points.length;
+    if( n < 2 )
+      throw new IllegalArgumentException("spline needs at least 2 points");
+    if( points[0] != 0.0 )
+      throw new IllegalArgumentException("spline must start at 0: " + points[0]);
+    double h = 1.0 / (n - 1);
+    double[] slope = new double[n - 1];          // of each segment
+    for( int k = 0; k < n - 1; k++ )
+    {
+      slope[k] = (points[k + 1] - points[k]) / h;
+      if( !(slope[k] >= 0.0) )                    // also NaN
+        throw new IllegalArgumentException("spline points must not go down");
+    }
+
+    // Tangent at each point (Fritsch-Carlson), limited so the curve can't overshoot
+    double[] m = new double[n];
+    m[0] = slope[0];
+    m[n - 1] = slope[n - 2];
+    for( int k = 1; k < n - 1; k++ )
+      m[k] = (slope[k - 1] == 0.0 || slope[k] == 0.0) ? 0.0 : (slope[k - 1] + slope[k]) / 2.0;
+    for( int k = 0; k < n - 1; k++ )
+    {
+      if( slope[k] == 0.0 )
+      {
+        m[k] = 0.0;
+        m[k + 1] = 0.0;
+        continue;
+      }
+      double a = m[k] / slope[k];
+      double b = m[k + 1] / slope[k];
+      double r = a * a + b * b;
+      if( r > 9.0 )
+      {
+        double t = 3.0 / Math.sqrt(r);
+        m[k] = t * a * slope[k];
+        m[k + 1] = t * b * slope[k];
+      }
+    }
+
+    StringBuilder label = new StringBuilder("spline");
+    for( double p : points )
+      label.append(' ').append(p);
+    return new InputCurve(label.toString(), x ->
+    {
+      int k = Math.min((int)(x / h), n - 2);
+      double t = (x - k * h) / h;
+      double t2 = t * t;
+      double t3 = t2 * t;
+      return (2 * t3 - 3 * t2 + 1) * points[k] + (t3 - 2 * t2 + t) * h * m[k]
+             + (-2 * t3 + 3 * t2) * points[k + 1] + (t3 - t2) * h * m[k + 1];
+    });
+  }
+
+
+  /*****************************************************************/
+  /* Parse() - curve from its name: linear, square, cubic, expo or */
+  /*           spline.  expo and spline use the extra values.      */
+  /*****************************************************************/
+  public static InputCurve Parse( String text, double expo, double[] spline_points )
+  {
+    switch( text.trim().toLowerCase() )
+    {
+      case "linear":
+        return Linear;
+      case "square":
+        return Square;
+      case "cubic":
+        return Cubic;
+      case "expo":
+        return Expo(expo);
+      case "spline":
+        return Spline(spline_points);
+      default:
+        throw new IllegalArgumentException("unknown curve: " + text);
+    }
+  }
+}
@@ -0,0 +1,76 @@
+/*-----------------------------------------------------------------------------*/
+/* Copyright (c) 2018 FIRST. All Rights Reserved.                              */
+/* Open Source Software - may be modified and shared by FRC teams. The code    */
+/* must be accompanied by the FIRST BSD license file in the root directory of  */
+/* the project.                                                                */
+/*                                                                             */
+/* Shapes one joystick axis into a motor command.  The raw axis goes through */
+/* its InputCurve (one table lookup), is scaled by the normal or turbo speed, */
+/* and then forced to zero inside the deadband.  Only primitive doubles are   */
+/* used, so shaping an axis every 10 msec. loop creates no garbage.          */
+/*-----------------------------------------------------------------------------*/
+
+package frc.robot;
+
+public class InputShaper
+{
+  private double deadband;
+  private double normal_scale;
+  private double turbo_scale;
+  private InputCurve curve;
+
+
+  public InputShaper( double deadband, double normal_scale, double turbo_scale, InputCurve curve )
+  {
+    this.deadband = deadband;
+    this.normal_scale = normal_scale;
+    this.turbo_scale = turbo_scale;
+    this.curve = curve;
+  }
+
+
+  /*****************************************************************/
+  /* Configure() - change the deadband, scales and curve, e.g.     */
+  /*               from a new TuningConfig.                        */
+  /*****************************************************************/
+  public void Configure( double deadband, double normal_scale, double turbo_scale, InputCurve curve )
+  {
+    this.deadband = deadband;
+    this.normal_scale = normal_scale;
+    this.turbo_scale = turbo_scale;
+    this.curve = curve;
+  }
+
+
+  /*****************************************************************/
+  /* Shape() - curve, scale and deadband one axis value.  turbo    */
+  /*           selects the turbo scale instead of the normal one.  */
+  /*****************************************************************/
+  public double Shape( double raw, boolean turbo )
+  {
+    double value = curve.Apply(raw) * Select_Scale(turbo);
+    return Deadband(value, deadband);
+  }
+
+
+  /*****************************************************************/
+  /* Select_Scale() - turbo selector.                              */
+  /*****************************************************************/
+  public double Select_Scale( boolean turbo )
+  {
+    if( turbo )
+      return turbo_scale;
+    return normal_scale;
+  }
+
+
+  /*****************************************************************/
+  /* Deadband() - return 0 when value is inside +/- band.          */
+  /*****************************************************************/
+  public static double Deadband( double value, double band )
+  {
+    if( (value < band) && (value > -band) )
+      return 0.0;
+    return value;
+  }
+}
@@ -0,0 +1,298 @@
+/*-----------------------------------------------------------------------------*/
+/* Copyright (c) 2018 FIRST. All Rights Reserved.                              */
+/* Open Source Software - may be modified and shared by FRC teams. The code    */
+/* must be accompanied by the FIRST BSD license file in the root directory of  */
+/* the project.                                                                */
+/*                                                                             */
+/* Times each subsystem call in the control loop with System.nanoTime().      */
+/* Every section has a fixed size histogram (32 buckets per power of two, so  */
+/* about 3% resolution) made of atomic counters: recording never allocates    */
+/* or locks, and Report() can be called from any thread.  When a whole loop   */
+/* goes over the budget the overrun is blamed on the section that took the    */
+/* longest, and the last MaxOverruns overruns are kept for the report.       */
+/* Report() prints p50 / p99 / max per section and the overrun list; Robot    */
+/* calls it when the robot is disabled at the end of a match.                */
+/*-----------------------------------------------------------------------------*/
+
+package frc.robot;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class LoopProfiler
+{
+  /* One fixed size log-linear histogram of nanosecond durations. */
+  static final class Histogram
+  {
+    static final int SubBits = 5;
+    static final int SubBuckets = 1 << SubBits;
+    static final int Buckets = 64 * SubBuckets;
+
+    private final AtomicLongArray counts = new AtomicLongArray(Buckets);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    void Record( long nanos )
+    {
+      if( nanos < 0 )
+        nanos = 0;
+      counts.incrementAndGet(Bucket(nanos));
+      total.incrementAndGet();
+      long m = max.get();
+      while( nanos > m && !max.compareAndSet(m, nanos) )
+        m = max.get();
+    }
+
+    long Count()
+    {
+      return total.get();
+    }
+
+    long Max()
+    {
+      return max.get();
+    }
+
+    /* Smallest bucket value with at least fraction of the samples at or below it. */
+    long Percentile( double fraction )
+    {
+      long n = total.get();
+      if( n == 0 )
+        return 0;
+      long target = (long)Math.ceil(fraction * n);
+      long seen = 0;
+      for( int i = 0; i < Buckets; i++ )
+      {
+        seen += counts.get(i);
+        if( seen >= target )
+          return Math.min(Bucket_Top(i), max.get());
+      }
+      return max.get();
+    }
+
+    void Reset()
+    {
+      for( int i = 0; i < Buckets; i++ )
+        counts.set(i, 0);
+      total.set(0);
+      max.set(0);
+    }
+
+    static int Bucket( long nanos )
+    {
+      if( nanos < SubBuckets )
+        return (int)nanos;
+      int shift = 63 - Long.numberOfLeadingZeros(nanos) - SubBits;
+      return (shift + 1) * SubBuckets + (int)((nanos >>> shift) - SubBuckets);
+    }
+
+    static long Bucket_Top( int bucket )
+    {
+      if( bucket < SubBuckets )
+        return bucket;
+      int shift = bucket / SubBuckets - 1;
+      long mantissa = bucket % SubBuckets + SubBuckets;
+      return ((mantissa + 1) << shift) - 1;
+    }
+  }
+
+  final int MaxSections = 16;
+  final int MaxOverruns = 32;
+  static final int Unaccounted = -1;             // time outside all sections (GC, wpilib)
+
+  private final long budget_nanos;
+  private final String[] names = new String[MaxSections];
+  private final Histogram[] sections = new Histogram[MaxSections];
+  private final Histogram loop = new Histogram();
+  private int section_count = 0;
+
+  // Current loop, only touched by the robot thread
+  private final long[] cycle_nanos = new long[MaxSections];
+  private long cycle_start;
+  private boolean in_cycle = false;
+  private long cycle_number = 0;
+  private long period_total = 0;                 // loop time since the last Period_Loop_Nanos()
+  private long period_loops = 0;
+
+  // Overrun counts and the last MaxOverruns overruns
+  private final AtomicLongArray overrun_counts = new AtomicLongArray(MaxSections + 1);
+  private final AtomicLong overruns = new AtomicLong();
+  private final long[] overrun_cycle = new long[MaxOverruns];
+  private final long[] overrun_total = new long[MaxOverruns];
+  private final int[] overrun_culprit = new int[MaxOverruns];
+  private final long[] overrun_culprit_nanos = new long[MaxOverruns];
+
+
+  public LoopProfiler( double budget_seconds )
+  {
+    budget_nanos = (long)(budget_seconds * 1e9);
+  }
+
+
+  /*****************************************************************/
+  /* Add() - add a timed section and return its id.                */
+  /*****************************************************************/
+  public int Add( String name )
+  {
+    if( section_count >= MaxSections )
+      throw new IllegalStateException("LoopProfiler: too many sections, adding " + name);
+    names[section_count] = name;
+    sections[section_count] = new Histogram();
+    return section_count++;
+  }
+
+
+  /*****************************************************************/
+  /* Begin_Cycle() - mark the start of a control loop.             */
+  /*****************************************************************/
+  public void Begin_Cycle()
+  {
+    for( int i = 0; i < section_count; i++ )
+      cycle_nanos[i] = 0;
+    in_cycle = true;
+    cycle_start = System.nanoTime();
+  }
+
+
+  /*****************************************************************/
+  /* Start() / Stop() - time one section.  Stop() returns the time */
+  /*                    it read, so it can start the next section: */
+  /*                      long t = profiler.Start();               */
+  /*                      Drive_Controls();                        */
+  /*                      t = profiler.Stop(DriveTime, t);         */
+  /*****************************************************************/
+  public long Start()
+  {
+    return System.nanoTime();
+  }
+
+  public long Stop( int section, long start )
+  {
+    long now = System.nanoTime();
+    long elapsed = now - start;
+    sections[section].Record(elapsed);
+    cycle_nanos[section] += elapsed;
+    return now;
+  }
+
+
+  /*****************************************************************/
+  /* End_Cycle() - record the loop time and, on an overrun, find   */
+  /*               the section that took the most time.            */
+  /*****************************************************************/
+  public void End_Cycle()
+  {
+    if( !in_cycle )
+      return;
+    in_cycle = false;
+    long total = System.nanoTime() - cycle_start;
+    period_total += total;
+    period_loops++;
+    loop.Record(total);
+    cycle_number++;
+
+    if( total > budget_nanos )
+    {
+      int culprit = Unaccounted;
+      long culprit_nanos = total;
+      long longest = 0;
+      for( int i = 0; i < section_count; i++ )
+      {
+        culprit_nanos -= cycle_nanos[i];
+        if( cycle_nanos[i] > longest )
+        {
+          longest = cycle_nanos[i];
+          culprit = i;
+        }
+      }
+      if( culprit_nanos > longest )              // more time went outside the sections
+        culprit = Unaccounted;
+      else
+        culprit_nanos = longest;
+
+      int slot = (int)(overruns.get() % MaxOverruns);
+      overrun_cycle[slot] = cycle_number;
+      overrun_total[slot] = total;
+      overrun_culprit[slot] = culprit;
+      overrun_culprit_nanos[slot] = culprit_nanos;
+      overrun_counts.incrementAndGet(culprit + 1);
+      overruns.incrementAndGet();
+    }
+  }
+
+
+  /*****************************************************************/
+  /* Period_Loop_Nanos() - the average loop time since the last    */
+  /*                       call, 0 if no loop has ended since.     */
+  /*****************************************************************/
+  public long Period_Loop_Nanos()
+  {
+    if( period_loops == 0 )
+      return 0;
+    long average = period_total / period_loops;
+    period_total = 0;
+    period_loops = 0;
+    return average;
+  }
+
+
+  /*****************************************************************/
+  /* Cycle_Elapsed() - time since Begin_Cycle(), 0 outside a loop. */
+  /*****************************************************************/
+  public long Cycle_Elapsed()
+  {
+    return in_cycle ? System.nanoTime() - cycle_start : 0;
+  }
+
+
+  /*****************************************************************/
+  /* Report() - print the timing of every section and the overruns */
+  /*            since the last Reset().                            */
+  /*****************************************************************/
+  public void Report()
+  {
+    if( loop.Count() == 0 )
+      return;
+    StringBuilder sb = new StringBuilder();
+    sb.append(String.format("Loop timing: %d loops, budget %.2f ms%n", loop.Count(), budget_nanos / 1e6));
+    sb.append(String.format("  %-16s %10s %10s %10s %10s%n", "section", "p50 ms", "p99 ms", "max ms", "overruns"));
+    for( int i = 0; i < section_count; i++ )
+      Report_Line(sb, names[i], sections[i], overrun_counts.get(i + 1));
+    sb.append(String.format("  %-16s %10s %10s %10s %10d%n", "unaccounted", "", "", "", overrun_counts.get(0)));
+    Report_Line(sb, "loop", loop, overruns.get());
+
+    long n = overruns.get();
+    long first = Math.max(0, n - MaxOverruns);
+    for( long k = first; k < n; k++ )
+    {
+      int slot = (int)(k % MaxOverruns);
+      int culprit = overrun_culprit[slot];
+      sb.append(String.format("  overrun at loop %d: %.2f ms, %s took %.2f ms%n",
+                              overrun_cycle[slot], overrun_total[slot] / 1e6,
+                              culprit == Unaccounted ? "unaccounted" : names[culprit],
+                              overrun_culprit_nanos[slot] / 1e6));
+    }
+    System.out.print(sb);
+  }
+
+  private void Report_Line( StringBuilder sb, String name, Histogram h, long overrun_count )
+  {
+    sb.append(String.format("  %-16s %10.3f %10.3f %10.3f %10d%n", name,
+                            h.Percentile(0.50) / 1e6, h.Percentile(0.99) / 1e6, h.Max() / 1e6,
+                            overrun_count));
+  }
+
+
+  /*****************************************************************/
+  /* Reset() - clear all histograms and overruns.                  */
+  /*****************************************************************/
+  public void Reset()
+  {
+    for( int i = 0; i < section_count; i++ )
+      sections[i].Reset();
+    loop.Reset();
+    for( int i = 0; i <= section_count; i++ )
+      overrun_counts.set(i, 0);
+    overruns.set(0);
+    cycle_number = 0;
+  }
+}
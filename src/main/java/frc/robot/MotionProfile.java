@@ -0,0 +1,145 @@
+/*-----------------------------------------------------------------------------*/
+/* Copyright (c) 2018 FIRST. All Rights Reserved.                              */
+/* Open Source Software - may be modified and shared by FRC teams. The code    */
+/* must be accompanied by the FIRST BSD license file in the root directory of  */
+/* the project.                                                                */
+/*                                                                             */
+/* A straight move worked out ahead of time, one sample per loop period.     */
+/* Trapezoid() speeds up at max acceleration, cruises at max velocity and     */
+/* slows down the same way (a triangle if the move is too short to reach     */
+/* max velocity).  S_Curve() is the same move run through a jerk_time long   */
+/* moving average, which rounds the corners of the acceleration so the       */
+/* wheels don't slip; the move takes jerk_time longer.  Built in             */
+/* autonomousInit(), then ProfilePlayer only looks samples up.               */
+/*-----------------------------------------------------------------------------*/
+
+package frc.robot;
+
+public final class MotionProfile
+{
+  public final double[] position;                // distance from the start
+  public final double[] velocity;
+  public final double[] acceleration;
+  public final double period;                    // seconds between samples
+
+
+  private MotionProfile( int samples, double period )
+  {
+    position = new double[samples];
+    velocity = new double[samples];
+    acceleration = new double[samples];
+    this.period = period;
+  }
+
+
+  /*****************************************************************/
+  /* Trapezoid() - move distance (negative = backward) limited to  */
+  /*               max_velocity and max_acceleration.              */
+  /*****************************************************************/
+  public static MotionProfile Trapezoid( double distance, double max_velocity, double max_acceleration,
+                                         double period )
+  {
+    if( max_velocity <= 0.0 || max_acceleration <= 0.0 || period <= 0.0 )
+      throw new IllegalStateException("MotionProfile: limits and period must be above zero");
+
+    double sign = Math.signum(distance);
+    double d = Math.abs(distance);
+    double accel_time = max_velocity / max_acceleration;
+    double peak = max_velocity;
+    if( max_acceleration * accel_time * accel_time > d )   // too short to reach max_velocity
+    {
+      accel_time = Math.sqrt(d / max_acceleration);
+      peak = max_acceleration * accel_time;
+    }
+    double accel_distance = 0.5 * max_acceleration * accel_time * accel_time;
+    double cruise_time = (peak > 0.0) ? (d - 2.0 * accel_distance) / peak : 0.0;
+    double decel_start = accel_time + cruise_time;
+    double total_time = decel_start + accel_time;
+
+    MotionProfile p = new MotionProfile((int)Math.ceil(total_time / period) + 1, period);
+    for( int k = 0; k < p.position.length; k++ )
+    {
+      double t = Math.min(k * period, total_time);
+      double pos, vel, acc;
+      if( t < accel_time )
+      {
+        acc = max_acceleration;
+        vel = acc * t;
+        pos = 0.5 * acc * t * t;
+      }
+      else if( t < decel_start )
+      {
+        acc = 0.0;
+        vel = peak;
+        pos = accel_distance + peak * (t - accel_time);
+      }
+      else if( t < total_time )
+      {
+        double left = total_time - t;            // time until the end
+        acc = -max_acceleration;
+        vel = max_acceleration * left;
+        pos = d - 0.5 * max_acceleration * left * left;
+      }
+      else
+      {
+        acc = 0.0;
+        vel = 0.0;
+        pos = d;
+      }
+      p.position[k] = sign * pos;
+      p.velocity[k] = sign * vel;
+      p.acceleration[k] = sign * acc;
+    }
+    return p;
+  }
+
+
+  /*****************************************************************/
+  /* S_Curve() - Trapezoid() smoothed over jerk_time seconds.      */
+  /*****************************************************************/
+  public static MotionProfile S_Curve( double distance, double max_velocity, double max_acceleration,
+                                       double jerk_time, double period )
+  {
+    MotionProfile t = Trapezoid(distance, max_velocity, max_acceleration, period);
+    int window = Math.max(1, (int)Math.round(jerk_time / period));
+    if( window == 1 )
+      return t;
+
+    int n = t.position.length;
+    double end = t.position[n - 1];
+    MotionProfile p = new MotionProfile(n + window - 1, period);
+    double pos_sum = 0.0, vel_sum = 0.0, acc_sum = 0.0;
+    for( int k = 0; k < p.position.length; k++ )
+    {
+      // add sample k of the trapezoid, drop sample k - window
+      pos_sum += (k < n) ? t.position[k] : end;
+      vel_sum += (k < n) ? t.velocity[k] : 0.0;
+      acc_sum += (k < n) ? t.acceleration[k] : 0.0;
+      int old = k - window;
+      if( old >= 0 )
+      {
+        pos_sum -= (old < n) ? t.position[old] : end;
+        vel_sum -= (old < n) ? t.velocity[old] : 0.0;
+        acc_sum -= (old < n) ? t.acceleration[old] : 0.0;
+      }
+      p.position[k] = pos_sum / window;
+      p.velocity[k] = vel_sum / window;
+      p.acceleration[k] = acc_sum / window;
+    }
+    p.position[p.position.length - 1] = end;     // no rounding error at the end
+    p.velocity[p.velocity.length - 1] = 0.0;
+    p.acceleration[p.acceleration.length - 1] = 0.0;
+    return p;
+  }
+
+
+  public int Length()
+  {
+    return position.length;
+  }
+
+  public double Duration()
+  {
+    return (position.length - 1) * period;
+  }
+}
@@ -7,387 +7,184 @@
 
 package frc.robot;
 
-import edu.wpi.first.wpilibj.Solenoid;
-import edu.wpi.first.wpilibj.DoubleSolenoid;
-import edu.wpi.first.wpilibj.Compressor;
-import edu.wpi.first.wpilibj.Timer;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
-import edu.wpi.first.wpilibj.AnalogInput;
-import edu.wpi.first.wpilibj.Joystick;
-
-enum CylinderStates 
-{
-  idle,
-  wait_for_extend_cmd,
-  wait_for_extend,
-  wait_for_extend_release,
-  wait_for_retract_cmd,
-  wait_for_retract,  
-  wait_for_retract_release
-};
-
-enum PressureStates 
-{
-  initialize, 
-  wait_tanks_pressurize, 
-  tanks_pressurized
-};
-
 public class Pneumatics 
 { 
-  Joystick jstick;
-
-  Compressor c = new Compressor(0);
-  Solenoid Front_Lift = new Solenoid(0);
-  Solenoid Ball_Gateway = new Solenoid(1); 
-  DoubleSolenoid Rear_Lift = new DoubleSolenoid(4, 5);
-  DoubleSolenoid Rear_Lift2 = new DoubleSolenoid(6, 7);
+  HidSnapshot jstick;
+  ButtonDebouncer buttons;
+  Telemetry telemetry;
+
+  RobotHardware.AirCompressor c;
+  RobotHardware.Valve Front_Lift;
+  RobotHardware.Valve Ball_Gateway;
+  RobotHardware.DoubleValve Rear_Lift;
+  RobotHardware.DoubleValve Rear_Lift2;
  
-  Timer FrontTimer = new Timer();
-  Timer RearTimer = new Timer();
+  CylinderEngine cylinders;
+  AirBudget air;                                 // learns air use per stroke and the refill rate
+  int FrontLift;                                 // cylinder ids in the engine
+  int RearLift;
+  int BallGateway;
 
-  CylinderStates Front_Lift_State;
-  CylinderStates Rear_Lift_State;
-  CylinderStates BallGateway_State;
-
-  final double CylinderActuationTime = 1.25;      // Need to measure this
   private  PressureStates pressure_state = PressureStates.initialize;
   private boolean pressure_ok;
  
-  final double PressureMax = 2.0;                // change when ready to deploy
   private double PressureVolts;
-  private int PressureDebounce = 0;
-  private int FrontLift_Debounce = 0;
-  private int RearLift_Debounce = 0;
-  AnalogInput TankPressure = new AnalogInput(0);
+  private PressureSampler pressure_sampler;     // reads and filters TankPressure at 250 Hz
+  RobotHardware.AnalogSensor TankPressure;
 
-  public Pneumatics( Joystick stick )
+  public Pneumatics( RobotHardware hw, HidSnapshot stick, ButtonDebouncer debouncer, Telemetry tlm,
+                     TimingWheel timers, TuningConfig.Values tuning )
   {
     System.out.println( "Pneumatics Constructor");
+    c = hw.Compressor(0);
+    Front_Lift = hw.Solenoid(0);
+    Ball_Gateway = hw.Solenoid(1);
+    Rear_Lift = hw.DoubleSolenoid(4, 5);
+    Rear_Lift2 = hw.DoubleSolenoid(6, 7);
+    TankPressure = hw.AnalogInput(0);
+    pressure_sampler = new PressureSampler(hw, TankPressure,
+                                           new PressureFilter(tuning.PressureMax,
+                                                              tuning.PressureMax - tuning.PressureHysteresis));
     c.setClosedLoopControl(true);                // Turn on Compressor    
     jstick = stick;
+    buttons = debouncer;
+    telemetry = tlm;
+
+    // Buttons act on the first sample of a press, then are held for the debounce time
+    //                          name           button  needs air  debounce ms  leading edge  actuation time
+    cylinders = new CylinderEngine(telemetry, timers, buttons, ButtonDebouncer.Left);
+    FrontLift = cylinders.Add( "FrontLift",    4,      true,      200,         true,         tuning.CylinderActuationTime,
+                               extend -> Front_Lift.set(extend) );
+    RearLift = cylinders.Add( "RearLift",      5,      true,      200,         true,         tuning.CylinderActuationTime,
+                               extend -> Set_Rear_Lift(extend) );
+    BallGateway = cylinders.Add( "BallGateway", 1,     false,     100,         true,         0.0,
+                               extend -> Ball_Gateway.set(extend) );
+
+    // First guesses, volts per stroke, until the budget has measured them.  Need to measure these
+    //                cylinder     name          extend  retract
+    air = new AirBudget(telemetry, tuning.PressureMinimum);
+    air.Set_Cylinder( FrontLift,   "FrontLift",  0.25,   0.25 );
+    air.Set_Cylinder( RearLift,    "RearLift",   0.50,   0.50 );   // Rear_Lift and Rear_Lift2 together
+    cylinders.Set_Air_Budget(air);
   }
   
   public void Initialize()
   {  
     c.setClosedLoopControl(true);   
-    Front_Lift.set(false);
-    Rear_Lift.set(DoubleSolenoid.Value.kReverse);
-    Rear_Lift2.set(DoubleSolenoid.Value.kReverse);
-    Ball_Gateway.set(false);
+    cylinders.Reset();                           // Retract all cylinders
     pressure_state = PressureStates.initialize;
-    SmartDashboard.putBoolean("PressureOK", pressure_ok);
-    PressureDebounce = 0;
-    FrontLift_Debounce = 0;
-    RearLift_Debounce = 0;
-    Front_Lift_State = CylinderStates.wait_for_extend_cmd;
-    Rear_Lift_State = CylinderStates.wait_for_extend_cmd;
-    BallGateway_State = CylinderStates.wait_for_extend_cmd;
+    telemetry.putBoolean("PressureOK", pressure_ok);
+    pressure_sampler.Reset();
   }
 
 
   /*****************************************************************/
-  /* Cylinder_Controls() - checks pressure on air tanks and calls  */
-  /*                       the controllers for front, rear and     */
-  /*                       ball gateway cylinders.                 */
+  /* Apply_Tuning() - new lift actuation time and pressure levels. */
   /*****************************************************************/ 
-  public void Cylinder_Controls()
+  public void Apply_Tuning( TuningConfig.Values tuning )
   {
-    Check_Air_Pressure();
-    FrontLift_Controller();
-    RearLift_Controller();
-    BallGateway_Controller();   
+    cylinders.Set_Actuation_Time(FrontLift, tuning.CylinderActuationTime);
+    cylinders.Set_Actuation_Time(RearLift, tuning.CylinderActuationTime);
+    pressure_sampler.Set_Levels(tuning.PressureMax, tuning.PressureMax - tuning.PressureHysteresis);
+    air.Set_Min_Volts(tuning.PressureMinimum);
   }
 
 
   /*****************************************************************/
-  /* Check_Air_Pressure() - read Analog pressure sensor and        */
-  /*                        debounce.                              */
+  /* Cylinder_Controls() - checks pressure on air tanks and steps  */
+  /*                       the front, rear and ball gateway        */
+  /*                       cylinders.  Give buttons to use them in */
+  /*                       place of the joystick, e.g. in replay.  */
   /*****************************************************************/ 
-  private void Check_Air_Pressure()
+  public void Cylinder_Controls()
   {
-    PressureVolts = TankPressure.getVoltage();   // Read Analog Pressure Sensor 
-    switch (pressure_state)
-    {
-      case initialize:        
-        pressure_ok = false;
-        SmartDashboard.putBoolean("PressureOK", pressure_ok);
-        pressure_state = PressureStates.wait_tanks_pressurize;
-        PressureDebounce = 0;
-        break;
-    
-      case wait_tanks_pressurize:
-        if( PressureVolts >= PressureMax )
-        {
-          if( ++PressureDebounce > 10 )
-          {
-            PressureDebounce = 0;  
-            pressure_ok = true;
-            SmartDashboard.putBoolean("PressureOK", pressure_ok);
-            pressure_state = PressureStates.tanks_pressurized;           
-          } 
-        }  
-        else     
-          PressureDebounce = 0;
-        break;
-
-      case tanks_pressurized:
-        if( PressureVolts < PressureMax)
-        {
-          if( ++PressureDebounce > 10 )
-          {
-            PressureDebounce = 0;   
-            pressure_ok = false;
-            SmartDashboard.putBoolean("PressureOK", pressure_ok);
-            pressure_state = PressureStates.wait_tanks_pressurize;
-          }  
-        }
-        else 
-          PressureDebounce = 0;   
-        break;
+    Check_Air_Pressure(jstick.getTimestamp());
+    cylinders.Step(pressure_ok, jstick.getTimestamp());
+  }
 
-      default:
-        pressure_state = PressureStates.initialize;
-        break;
-    } 
+  public void Cylinder_Controls( int buttons )
+  {
+    Check_Air_Pressure(jstick.getTimestamp());
+    cylinders.Step(buttons, pressure_ok, jstick.getTimestamp());
   }
 
 
   /*****************************************************************/
-  /* FrontLift_Controller() - read leftstick button 4 to raise     */
-  /*                            or lower FrontLift cylinder.       */
+  /* Get_Cylinder_State() - state of FrontLift, RearLift or        */
+  /*                        BallGateway.                           */
   /*****************************************************************/ 
-  public void FrontLift_Controller()
+  public CylinderStates Get_Cylinder_State( int cylinder )
   {
-    switch (Front_Lift_State)
-    {
-      case idle:
-        break;
-    
-      case wait_for_extend_cmd:
-        if (jstick.getRawButton(4) == true && pressure_ok )
-        { 
-          if( ++FrontLift_Debounce > 10 )
-          {
-            Front_Lift.set(true);
-            FrontTimer.reset();
-            FrontTimer.start();
-            Front_Lift_State = CylinderStates.wait_for_extend;
-            SmartDashboard.putString("FrontLift", "Extending");
-          }
-        }
-        else 
-          FrontLift_Debounce = 0;
-        break;
-    
-      case wait_for_extend:
-        if( FrontTimer.get() > CylinderActuationTime)
-        {
-          FrontLift_Debounce = 0;
-          Front_Lift_State = CylinderStates.wait_for_extend_release;
-          FrontTimer.stop();
-          SmartDashboard.putString("FrontLift", "Extended");
-        }
-        break;
-    
-      case wait_for_extend_release:
-        if (jstick.getRawButton(4) == false)
-        {
-          if ( ++FrontLift_Debounce > 10 )
-          {
-            FrontLift_Debounce = 0;
-            Front_Lift_State = CylinderStates.wait_for_retract_cmd;
-          }
-        }
-        else 
-          FrontLift_Debounce = 0;
-        break;
-    
-      case wait_for_retract_cmd:
-        if (jstick.getRawButton(4) == true && pressure_ok)  
-        {      
-          if (++FrontLift_Debounce > 10)
-          {
-            Front_Lift.set(false);
-            FrontTimer.reset();
-            FrontTimer.start();
-            Front_Lift_State = CylinderStates.wait_for_retract;
-            SmartDashboard.putString("FrontLift", "Retracting");
-          }
-        }
-        else 
-          FrontLift_Debounce = 0;
-        break;
-    
-      case wait_for_retract:
-        if( FrontTimer.get() > CylinderActuationTime)
-        {
-          FrontLift_Debounce = 0;
-          Front_Lift_State = CylinderStates.wait_for_retract_release;
-          FrontTimer.stop();
-          SmartDashboard.putString("FrontLift", "Retracted");          
-        }
-        break;
-            
-      case wait_for_retract_release:
-        if (jstick.getRawButton(4) == false)
-        {
-          if (++FrontLift_Debounce > 10 )
-          {
-            FrontLift_Debounce = 0;
-            Front_Lift_State = CylinderStates.wait_for_extend_cmd;
-          }
-        }
-        else 
-          FrontLift_Debounce = 0;
-        break;
-    
-      default:
-        FrontLift_Debounce = 0;
-        Front_Lift_State = CylinderStates.wait_for_extend_cmd;
-        break;
-    }
+    return cylinders.Get_State(cylinder);
   }
-  
+
 
   /*****************************************************************/
-  /* RearLift_Controller() - read leftstick button 5 to raise      */
-  /*                            or lower RearLift cylinder.        */
+  /* Get_Pressure_Volts() / Get_Pressure_State() - last reading    */
+  /*                        of the tank pressure sensor.           */
   /*****************************************************************/ 
-  public void RearLift_Controller()
+  public double Get_Pressure_Volts()
   {
-	switch (Rear_Lift_State)
-    {
-      case idle:
-        break;
-
-      case wait_for_extend_cmd:
-        if (jstick.getRawButton(5) == true && pressure_ok)
-        {   
-          if (++RearLift_Debounce > 10 )  
-          {
-            Rear_Lift.set(DoubleSolenoid.Value.kForward);
-            Rear_Lift2.set(DoubleSolenoid.Value.kForward);
-            RearTimer.reset();
-            RearTimer.start();
-            Rear_Lift_State = CylinderStates.wait_for_extend;
-            SmartDashboard.putString("RearLift", "Extending");
-          }  
-        }
-        else 
-          RearLift_Debounce = 0;
-        break;
-
-      case wait_for_extend:
-        if( RearTimer.get() > CylinderActuationTime)
-        {
-          RearLift_Debounce = 0;
-          Rear_Lift_State = CylinderStates.wait_for_extend_release;
-          RearTimer.stop();
-          SmartDashboard.putString("RearLift", "Extended");
-        }
-        break;
-
-      case wait_for_extend_release:
-        if (jstick.getRawButton(5) == false)
-        {
-          if (++RearLift_Debounce > 10)
-          {
-            RearLift_Debounce = 0;
-            Rear_Lift_State = CylinderStates.wait_for_retract_cmd;
-          }
-        }
-        else 
-          RearLift_Debounce = 0;
-        break;
+    return PressureVolts;
+  }
 
-      case wait_for_retract_cmd:
-        if (jstick.getRawButton(5) == true && pressure_ok)
-        {  
-          if ( ++RearLift_Debounce > 10 )    
-          {
-            Rear_Lift.set(DoubleSolenoid.Value.kReverse);
-            Rear_Lift2.set(DoubleSolenoid.Value.kReverse);
-            RearTimer.reset();
-            RearTimer.start();
-            Rear_Lift_State = CylinderStates.wait_for_retract;
-            SmartDashboard.putString("RearLift", "Extending");
-          }
-        }
-        else 
-          RearLift_Debounce = 0;
-        break;
+  public PressureStates Get_Pressure_State()
+  {
+    return pressure_state;
+  }
 
-      case wait_for_retract:
-        if( RearTimer.get() > CylinderActuationTime)
-        {
-          RearLift_Debounce = 0;
-          Rear_Lift_State = CylinderStates.wait_for_retract_release;
-          RearTimer.stop();
-          SmartDashboard.putString("RearLift", "Retracted");          
-        }
-        break;
-        
-      case wait_for_retract_release:
-        if (jstick.getRawButton(5) == false)
-        {
-          if (++RearLift_Debounce > 10)
-          {
-            RearLift_Debounce = 0;
-            Rear_Lift_State = CylinderStates.wait_for_extend_cmd;
-          }  
-        }
-        else 
-          RearLift_Debounce = 0;
-        break;
 
-      default:
-        RearLift_Debounce = 0;
-        Rear_Lift_State = CylinderStates.wait_for_extend_cmd;
-        break;
-    }
+  /*****************************************************************/
+  /* Set_Rear_Lift() - both rear cylinders move together.          */
+  /*****************************************************************/ 
+  private void Set_Rear_Lift( boolean extend )
+  {
+    Rear_Lift.set(extend);
+    Rear_Lift2.set(extend);
   }
 
 
   /*****************************************************************/
-  /* BallGateway_Controller() - read leftstick button 1 to raise   */
-  /*                            or lower BallGateway cylinder.     */
-  /*****************************************************************/   
-  public void BallGateway_Controller() 
+  /* Check_Air_Pressure() - get the latest filtered pressure from  */
+  /*                        the sampler and give it to the budget. */
+  /*****************************************************************/ 
+  private void Check_Air_Pressure( long now )
   {
-    switch(BallGateway_State)
+    long sample = pressure_sampler.Read();       // one volatile read, no analog read here
+    PressureVolts = PressureSampler.Volts(sample);
+    if( PressureSampler.Sample_Count(sample) > 0 )   // none yet after a reset
+      air.Update(PressureVolts, now);
+    boolean filtered_ok = PressureSampler.Is_Ok(sample);
+    switch (pressure_state)
     {
-      case wait_for_extend_cmd:
-        if (jstick.getRawButton(1) == true)
-        {
-          Ball_Gateway.set(true);
-          BallGateway_State = CylinderStates.wait_for_extend_release;
-        } 
+      case initialize:        
+        pressure_ok = false;
+        telemetry.putBoolean("PressureOK", pressure_ok);
+        pressure_state = PressureStates.wait_tanks_pressurize;
         break;
- 
-      case wait_for_extend_release:
-        if (jstick.getRawButton(1) == false)
-          BallGateway_State = CylinderStates.wait_for_retract_cmd;
+    
+      case wait_tanks_pressurize:
+        if( filtered_ok )
+        {
+          pressure_ok = true;
+          telemetry.putBoolean("PressureOK", pressure_ok);
+          pressure_state = PressureStates.tanks_pressurized;           
+        }  
         break;
- 
-      case wait_for_retract_cmd:
-        if (jstick.getRawButton(1) == true)
+
+      case tanks_pressurized:
+        if( !filtered_ok )
         {
-          Ball_Gateway.set(false);
-          BallGateway_State = CylinderStates.wait_for_retract_release;
+          pressure_ok = false;
+          telemetry.putBoolean("PressureOK", pressure_ok);
+          pressure_state = PressureStates.wait_tanks_pressurize;
         }
         break;
- 
-      case wait_for_retract_release:
-        if (jstick.getRawButton(1) == false)
-          BallGateway_State = CylinderStates.wait_for_extend_cmd;
-        break;
-       
+
       default:
-        Ball_Gateway.set(false);
-        BallGateway_State = CylinderStates.wait_for_extend_cmd;
+        pressure_state = PressureStates.initialize;
         break;
-    }   
+    } 
   }
 
 }
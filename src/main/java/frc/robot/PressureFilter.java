@@ -0,0 +1,108 @@
+/*-----------------------------------------------------------------------------*/
+/* Copyright (c) 2018 FIRST. All Rights Reserved.                              */
+/* Open Source Software - may be modified and shared by FRC teams. The code    */
+/* must be accompanied by the FIRST BSD license file in the root directory of  */
+/* the project.                                                                */
+/*                                                                             */
+/* Streaming filter for the tank pressure sensor.  The last Window samples    */
+/* are kept in a ring buffer and the filtered value is their median, so a     */
+/* single noisy sample can't move it.  Pressure is good as soon as the        */
+/* filtered value reaches the on level, and lost as soon as it drops below    */
+/* the lower off level.  The gap between the two levels stops it chattering.  */
+/* The window is a fixed size, so each sample costs the same small amount of  */
+/* work and nothing is allocated.                                             */
+/*-----------------------------------------------------------------------------*/
+
+package frc.robot;
+
+public class PressureFilter
+{
+  static final int Window = 5;                   // samples in the median, keep it odd
+
+  private double on_level;
+  private double off_level;
+  private final double[] ring = new double[Window];
+  private final double[] sorted = new double[Window];
+  private int next = 0;
+  private int count = 0;
+  private double filtered = 0.0;
+  private boolean ok = false;
+
+
+  public PressureFilter( double on_level, double off_level )
+  {
+    this.on_level = on_level;
+    this.off_level = off_level;
+  }
+
+
+  /*****************************************************************/
+  /* Update() - add one sample and return true if pressure is ok.  */
+  /*****************************************************************/
+  public boolean Update( double volts )
+  {
+    ring[next] = volts;
+    next = (next + 1) % Window;
+    if( count < Window )
+      count++;
+
+    filtered = Median();
+    if( !ok && filtered >= on_level )
+      ok = true;
+    else if( ok && filtered < off_level )
+      ok = false;
+    return ok;
+  }
+
+
+  /*****************************************************************/
+  /* Set_Levels() - change the on / off levels, keep the samples.  */
+  /*****************************************************************/
+  public void Set_Levels( double on_level, double off_level )
+  {
+    this.on_level = on_level;
+    this.off_level = off_level;
+  }
+
+
+  /*****************************************************************/
+  /* Reset() - forget all samples, pressure not ok.                */
+  /*****************************************************************/
+  public void Reset()
+  {
+    next = 0;
+    count = 0;
+    filtered = 0.0;
+    ok = false;
+  }
+
+  public double Filtered()
+  {
+    return filtered;
+  }
+
+  public boolean Is_Ok()
+  {
+    return ok;
+  }
+
+
+  /*****************************************************************/
+  /* Median() - insertion sort of at most Window samples.          */
+  /*****************************************************************/
+  private double Median()
+  {
+    for( int i = 0; i < count; i++ )
+    {
+      double v = ring[i];
+      int j = i - 1;
+      while( j >= 0 && sorted[j] > v )
+      {
+        sorted[j + 1] = sorted[j];
+        j--;
+      }
+      sorted[j + 1] = v;
+    }
+    return sorted[count / 2];
+  }
+}
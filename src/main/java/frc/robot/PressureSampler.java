@@ -0,0 +1,122 @@
+/*-----------------------------------------------------------------------------*/
+/* Copyright (c) 2018 FIRST. All Rights Reserved.                              */
+/* Open Source Software - may be modified and shared by FRC teams. The code    */
+/* must be accompanied by the FIRST BSD license file in the root directory of  */
+/* the project.                                                                */
+/*                                                                             */
+/* Reads the tank pressure sensor at SampleRate on its own periodic thread    */
+/* (a Notifier on the robot) and runs it through a PressureFilter.  Each      */
+/* sample publishes the filtered volts, the pressure ok flag and a sample     */
+/* count packed into one volatile long.  Only the sampler writes it, so the   */
+/* main loop gets a consistent reading with a single volatile read: no locks  */
+/* and no analog read on the control loop.  Reset() counts resets instead of  */
+/* setting a flag, so one asked for while the sampler is applying the last    */
+/* can't be lost, and each slot carries the reset it was filtered after, so   */
+/* Read() never returns a sample from before the last Reset().                */
+/*                                                                             */
+/* Slot layout: bits 56-63 reset count, bits 33-55 sample count since then,    */
+/*              bit 32 pressure ok, bits 0-31 filtered volts as float bits.    */
+/*-----------------------------------------------------------------------------*/
+
+package frc.robot;
+
+public class PressureSampler
+{
+  final double SampleRate = 250.0;               // samples per second
+  static final long CountMask = (1L << 23) - 1;  // sample count bits, wraps after 9 hours
+  static final int ResetMask = 0xFF;             // reset count bits
+
+  private final RobotHardware.AnalogSensor sensor;
+  private final PressureFilter filter;
+  private volatile long slot = 0;
+  private volatile int resets = 0;               // Reset() calls, written by the loop only
+  private int applied_resets = 0;                // sampler thread only
+  private volatile long levels = 0;              // requested on / off levels, float bits high / low
+  private long applied_levels = 0;               // sampler thread only
+  private long samples = 0;                      // sampler thread only
+
+
+  public PressureSampler( RobotHardware hw, RobotHardware.AnalogSensor sensor, PressureFilter filter )
+  {
+    this.sensor = sensor;
+    this.filter = filter;
+    hw.StartPeriodic(this::Sample, 1.0 / SampleRate);
+  }
+
+
+  /*****************************************************************/
+  /* Sample() - runs on the sampler thread.  Read and filter one   */
+  /*            sample, then publish it.                           */
+  /*****************************************************************/
+  void Sample()
+  {
+    int r = resets;
+    if( r != applied_resets )
+    {
+      filter.Reset();
+      applied_resets = r;                        // a Reset() from now on is seen next sample
+      samples = 0;
+    }
+    long l = levels;
+    if( l != applied_levels )
+    {
+      filter.Set_Levels(Float.intBitsToFloat((int)(l >>> 32)), Float.intBitsToFloat((int)l));
+      applied_levels = l;
+    }
+    boolean ok = filter.Update(sensor.getVoltage());
+    samples++;
+    slot = ((long)(r & ResetMask) << 56) | ((samples & CountMask) << 33) | (ok ? 1L << 32 : 0L)
+           | (Float.floatToRawIntBits((float)filter.Filtered()) & 0xFFFFFFFFL);
+  }
+
+
+  /*****************************************************************/
+  /* Set_Levels() - ask the sampler to change the filter's on and  */
+  /*                off levels.  Both go in one volatile write.    */
+  /*****************************************************************/
+  public void Set_Levels( double on_level, double off_level )
+  {
+    levels = ((long)Float.floatToRawIntBits((float)on_level) << 32)
+             | (Float.floatToRawIntBits((float)off_level) & 0xFFFFFFFFL);
+  }
+
+
+  /*****************************************************************/
+  /* Reset() - ask the sampler to restart its filter.  Until it    */
+  /*           has, Read() gives no sample.                        */
+  /*****************************************************************/
+  public void Reset()
+  {
+    resets++;
+  }
+
+
+  /*****************************************************************/
+  /* Read() - latest published slot.  Decode it with the functions */
+  /*          below, so all three values come from one sample.     */
+  /*          0 (count 0, not ok) while there is no sample since   */
+  /*          the last Reset().  Same thread as Reset().           */
+  /*****************************************************************/
+  public long Read()
+  {
+    long s = slot;
+    if( (int)(s >>> 56) != (resets & ResetMask) )
+      return 0L;                                 // filtered before the last Reset()
+    return s;
+  }
+
+  public static double Volts( long slot )
+  {
+    return Float.intBitsToFloat((int)slot);
+  }
+
+  public static boolean Is_Ok( long slot )
+  {
+    return (slot & (1L << 32)) != 0;
+  }
+
+  public static long Sample_Count( long slot )
+  {
+    return (slot >>> 33) & CountMask;
+  }
+}
@@ -0,0 +1,82 @@
+/*-----------------------------------------------------------------------------*/
+/* Copyright (c) 2018 FIRST. All Rights Reserved.                              */
+/* Open Source Software - may be modified and shared by FRC teams. The code    */
+/* must be accompanied by the FIRST BSD license file in the root directory of  */
+/* the project.                                                                */
+/*                                                                             */
+/* Plays a MotionProfile back against the clock.  Step() turns the time since */
+/* Start() into a sample number and reads the arrays there, so a late loop    */
+/* picks up where the move should be instead of falling behind.  After the    */
+/* last sample it holds the end of the move and Is_Done() is true.           */
+/*-----------------------------------------------------------------------------*/
+
+package frc.robot;
+
+public class ProfilePlayer
+{
+  private MotionProfile profile;
+  private long start_time;
+  private long period_nanos;
+  private int index = 0;
+  private boolean done = true;
+
+
+  /*****************************************************************/
+  /* Start() - play profile from its first sample at now.          */
+  /*****************************************************************/
+  public void Start( MotionProfile profile, long now )
+  {
+    this.profile = profile;
+    start_time = now;
+    period_nanos = (long)(profile.period * 1e9);
+    index = 0;
+    done = false;
+  }
+
+
+  /*****************************************************************/
+  /* Step() - move to the sample for now.  Returns true when the   */
+  /*          move is over.                                        */
+  /*****************************************************************/
+  public boolean Step( long now )
+  {
+    if( done )
+      return true;
+    long sample = (now - start_time) / period_nanos;
+    int last = profile.position.length - 1;
+    if( sample >= last )
+    {
+      index = last;
+      done = true;
+    }
+    else
+      index = (int)Math.max(0, sample);
+    return done;
+  }
+
+
+  public void Stop()
+  {
+    done = true;
+  }
+
+  public boolean Is_Done()
+  {
+    return done;
+  }
+
+  public double Get_Position()
+  {
+    return profile == null ? 0.0 : profile.position[index];
+  }
+
+  public double Get_Velocity()
+  {
+    return profile == null ? 0.0 : profile.velocity[index];
+  }
+
+  public double Get_Acceleration()
+  {
+    return profile == null ? 0.0 : profile.acceleration[index];
+  }
+}
@@ -4,21 +4,14 @@
 /* must be accompanied by the FIRST BSD license file in the root directory of */
 /* the project.                                                               */
 /*                                                                            */
-/* Left Joystick at USB Port 0                                                */  
-/* Right Joystick at USB Port 1                                               */                              
+/* Left Joystick at USB Port 0                                                */
+/* Right Joystick at USB Port 1                                               */
 /*----------------------------------------------------------------------------*/
 package frc.robot;
 
+import java.io.File;
+import java.net.InetSocketAddress;
 import edu.wpi.first.wpilibj.TimedRobot;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
-import edu.wpi.first.wpilibj.Joystick;
-import edu.wpi.first.wpilibj.Spark;
-import edu.wpi.first.wpilibj.SpeedController;
-import edu.wpi.first.wpilibj.SpeedControllerGroup;
-import edu.wpi.first.wpilibj.drive.DifferentialDrive;
-import edu.wpi.first.wpilibj.Timer;
-import edu.wpi.cscore.UsbCamera;
-import edu.wpi.first.cameraserver.CameraServer;
 
 /**
  * The VM is configured to automatically run this class, and to call the
@@ -26,69 +19,50 @@ import edu.wpi.first.cameraserver.CameraServer;
  * documentation. If you change the name of this class or the package after
  * creating this project, you must also update the build.gradle file in the
  * project.
+ *
+ * <p>All of the robot logic is in RobotCore. This class only passes the
+ * TimedRobot calls on to it, with the hardware it was given.
  */
-public class Robot extends TimedRobot 
+public class Robot extends TimedRobot
 {
-  public Joystick LeftStick;
-  public Joystick RightStick;
-  public DifferentialDrive myRobot;
-  private SpeedController BallIntakeMotor;
-  private SpeedControllerGroup m_Left;
-  private SpeedControllerGroup m_Right;
-  private SpeedControllerGroup m_Winch;
-  private int WinchCounter = 0; 
-  UsbCamera cam0;
-  UsbCamera cam1;
+  private final RobotHardware hardware;
+  public RobotCore core;
 
-  public SystemStatus sysstat = new SystemStatus();     // This object check game clock and pressure level
-  public Pneumatics lifts;                              // This object controls lift cyclinders
- 
-  final double RobotMaxSpeed = 1;
-  final double RobotMaxTurnSpeed = 0.85;
-  final double RobotNormalSpeed = .80;
-  final double RobotNormalTurnSpeed = 0.70;
- 
-  final double BallIntakeMaxSpeed = 1.0;
-  final double WinchMaxSpeed = 1.0;
-  final double DeadBand = 0.1;
-  private Timer robot_timer;
-  final double auto_robot_move_time = 3.0;
-  final double auto_robot_move_speed = 0.4;
-  enum Robot_Move_States 
+  final File FlightRecorderFile = new File("/home/lvuser/flight.rec");
+  final int FlightRecorderRecords = 65536;       // about 20 minutes at 50 loops per second
+  final File AutoFile = new File("/home/lvuser/deploy/auto.rec");
+  final File TuningFile = new File("/home/lvuser/deploy/tuning.properties");
+  final InetSocketAddress TelemetryTarget = new InetSocketAddress("10.59.0.255", 5800);   // driver station subnet, team port
+
+  public Robot()
   {
-    idle, 
-    set_up_move,
-    wait_for_move_complete,
-    finished
-  };
+    this(new WpiHardware());
+  }
 
-  Robot_Move_States robot_move_state = Robot_Move_States.idle;
+  public Robot( RobotHardware hw )
+  {
+    super(RobotCore.LoopPeriod);                 // faster than the default, for the drive task
+    hardware = hw;
+  }
 
   /**
    * This function is run when the robot is first started up and should be
    * used for any initialization code.
    */
   @Override
-  public void robotInit() 
+  public void robotInit()
   {
-    SmartDashboard.putString("Mode", "robotInit");
+    core = new RobotCore(hardware);
+    core.robotInit();                            // drive and pneumatics first, cameras on their own thread
+    core.startup.Run("AutoFile", () -> core.Set_Auto_File(AutoFile));
 
-    LeftStick = new Joystick(0);
-    RightStick = new Joystick(1);
-    lifts = new Pneumatics(LeftStick);           // Lift cyclinders, controlled by Left JoyStick
-    lifts.Initialize();                          // Initialize lift cylinders
-
-    m_Left = new SpeedControllerGroup( new Spark(0), new Spark(1));
-    m_Right = new SpeedControllerGroup( new Spark(2), new Spark(3));
-    m_Winch = new SpeedControllerGroup( new Spark(4), new Spark(5));
-    BallIntakeMotor = new Spark(6);  
-    myRobot = new DifferentialDrive(m_Left, m_Right);
-   
-    cam0 = CameraServer.getInstance().startAutomaticCapture();
-    cam0.setResolution(640, 480);
-    cam1 = CameraServer.getInstance().startAutomaticCapture(1);
-    cam1.setResolution(640, 480);   
-    
+    // Nothing the first loops need: start them beside the loop
+    core.startup.Background("Services", () ->
+    {
+      core.startup.Run("FlightRecorder", () -> core.Start_Flight_Recorder(FlightRecorderFile, FlightRecorderRecords));
+      core.startup.Run("UdpTelemetry", () -> core.Start_Udp_Telemetry(TelemetryTarget));
+      core.startup.Run("TuningConfig", () -> core.config.Start(TuningFile));   // picked up by the next loop, then on every change
+    });
   }
 
   /**
@@ -102,7 +76,26 @@ public class Robot extends TimedRobot
   @Override
   public void robotPeriodic()
   {
-    sysstat.Check_System_Status();               // This object check game clock
+    core.robotPeriodic();
+  }
+
+  /**
+   * This function is called once each time the robot enters disabled mode,
+   * which includes the end of a match.
+   */
+  @Override
+  public void disabledInit()
+  {
+    core.disabledInit();
+  }
+
+  /**
+   * This function is called periodically while disabled.
+   */
+  @Override
+  public void disabledPeriodic()
+  {
+    core.disabledPeriodic();
   }
 
   /**
@@ -117,233 +110,47 @@ public class Robot extends TimedRobot
    * SendableChooser make sure to add them to the chooser code above as well.
    */
   @Override
-  public void autonomousInit() 
+  public void autonomousInit()
   {
-    SmartDashboard.putString("Mode", "autonomousInit");
-    sysstat.StartGameClock();                    // Start Game Clock and monitor game elapsed time
-    robot_move_state = Robot_Move_States.idle;
+    core.autonomousInit();
   }
 
   /**
    * This function is called periodically during autonomous.
    */
   @Override
-  public void autonomousPeriodic() 
+  public void autonomousPeriodic()
   {
-    switch ( robot_move_state )
-    {
-      case idle:
-      case finished:
-        lifts.Cylinder_Controls();
-        Drive_Controls();
-        Winch_Controls();
-        BallInTake_Controls();
-        if( RightStick.getRawButton(3) == true )
-        { 
-          robot_move_state = Robot_Move_States.set_up_move;
-        }
-        break;
-      
-      case set_up_move:
-      case wait_for_move_complete:
-        Move_Robot_Controller();
-        break;
-    }   
+    core.autonomousPeriodic();
   }
 
   @Override
-  public void teleopInit() 
+  public void teleopInit()
   {
-    SmartDashboard.putString("Mode", "teleopInit");
+    core.teleopInit();
   }
 
   /**
    * This function is called periodically during operator control.
    */
   @Override
-  public void teleopPeriodic() 
-  { 
-    lifts.Cylinder_Controls();
-    Drive_Controls();   
-    Winch_Controls();
-    BallInTake_Controls();
+  public void teleopPeriodic()
+  {
+    core.teleopPeriodic();
   }
 
   @Override
-  public void testInit() 
+  public void testInit()
   {
-    SmartDashboard.putString("Mode", "testInit");
-    sysstat.StartGameClock();                    // Start Game Clock and monitor game elapsed time
+    core.testInit();
   }
 
   /**
    * This function is called periodically during test mode.
    */
   @Override
-  public void testPeriodic() 
-  { 
-    lifts.Cylinder_Controls();
-    Drive_Ramp_Controls();                      // Test Only - need input from drivers
-    Winch_Controls();
-    BallInTake_Controls();
-  }
-  
-
-  /*****************************************************************/
-  /* Drive_Controls() - read rightstick to get speed               */
-  /*****************************************************************/  
-  public void Drive_Controls()
+  public void testPeriodic()
   {
-    Double RobotActualSpeed;
-    Double RobotActualTurnSpeed;
-    Double TurnSpeed;
-    Double DriveSpeed;
-
-    if(RightStick.getRawButton(1))
-    {
-      RobotActualSpeed = RobotMaxSpeed;
-      RobotActualTurnSpeed = RobotMaxTurnSpeed;
-    }
-    else 
-    {
-      RobotActualSpeed = RobotNormalSpeed;
-      RobotActualTurnSpeed = RobotNormalTurnSpeed;
-    }
-
-    TurnSpeed = RightStick.getX();
-    TurnSpeed = TurnSpeed * RobotActualTurnSpeed;
-    if ((TurnSpeed < DeadBand) && (TurnSpeed > -DeadBand)) 
-      TurnSpeed = 0.0;
-
-    DriveSpeed = RightStick.getY();
-    DriveSpeed = DriveSpeed * RobotActualSpeed;
-    if ((DriveSpeed < DeadBand) &&  (DriveSpeed > -DeadBand)) 
-      DriveSpeed = 0.0;  
-
-    myRobot.arcadeDrive(-DriveSpeed, TurnSpeed);
-  }
-
-
-  /*****************************************************************/
-  /* Drive_Ramp_Controls() - square the joystick input to create a */
-  /*                         parabolic ramp.                       */
-  /*****************************************************************/  
-  public void Drive_Ramp_Controls()
-  {
-    Double RobotActualSpeed;
-    Double RobotActualTurnSpeed;
-    Double TurnSpeed;
-    Double DriveSpeed;
-
-    if(RightStick.getRawButton(1))
-    {
-      RobotActualSpeed = RobotMaxSpeed;
-      RobotActualTurnSpeed = RobotMaxTurnSpeed;
-    }
-    else 
-    {
-      RobotActualSpeed = RobotNormalSpeed;
-      RobotActualTurnSpeed = RobotNormalTurnSpeed;
-    }
-
-    TurnSpeed = RightStick.getX();
-    if( TurnSpeed > 0 )
-      TurnSpeed = Math.pow(TurnSpeed, 2);
-    else 
-      TurnSpeed = -Math.pow(TurnSpeed, 2);
-    TurnSpeed = TurnSpeed * RobotActualTurnSpeed;
-    if ((TurnSpeed < DeadBand) && (TurnSpeed > -DeadBand))
-      TurnSpeed = 0.0;
-
-    DriveSpeed = RightStick.getY();
-    if( DriveSpeed > 0)
-      DriveSpeed = Math.pow(DriveSpeed, 2);
-    else
-      DriveSpeed = -Math.pow(DriveSpeed, 2);
-    DriveSpeed = DriveSpeed * RobotActualSpeed;
-    if ((DriveSpeed < DeadBand) &&  (DriveSpeed > -DeadBand)) 
-      DriveSpeed = 0.0;  
-
-    myRobot.arcadeDrive(-DriveSpeed, TurnSpeed);
-  }
-
-
-  /*****************************************************************/
-  /* BallInTake_Controls() - read leftstick to get speed           */
-  /*****************************************************************/     
-  public void BallInTake_Controls()
-  {
-    Double BallIntakeSpeed;
-
-    BallIntakeSpeed = -LeftStick.getY();
-    BallIntakeSpeed = BallIntakeSpeed * BallIntakeMaxSpeed;
-    if ((BallIntakeSpeed < DeadBand) &&  (BallIntakeSpeed > -DeadBand)) 
-      BallIntakeSpeed = 0.0;      
-   
-    BallIntakeMotor.set(BallIntakeSpeed);
-    SmartDashboard.putNumber("BallIntake", BallIntakeSpeed);
-  }
-
-
-  /*****************************************************************/
-  /* Winch_Controls() - read leftstick button 3 to move up and     */
-  /*                    leftstick button 2 to move down.           */
-  /*****************************************************************/   
-  public void Winch_Controls()
-  {
-    if( LeftStick.getRawButton(3) == true )
-    { 
-      m_Winch.set( -WinchMaxSpeed );
-      WinchCounter++;
-    }
-    else if( LeftStick.getRawButton(2) == true )
-    {
-      m_Winch.set( WinchMaxSpeed );
-      if( WinchCounter > 0)
-        WinchCounter--;
-    }
-    else
-      m_Winch.set( 0.0 );
-
-    SmartDashboard.putNumber("WinchCount", WinchCounter);
-  }
-
-  /*****************************************************************/
-  /* Move_Robot_Controller() -                                     */
-  /*                                                               */
-  /*****************************************************************/   
-  public void Move_Robot_Controller()
-  {
-    switch ( robot_move_state )
-    {
-      case idle:
-        break;
-      
-      case set_up_move:
-        robot_timer.reset();
-        robot_timer.start();
-        myRobot.arcadeDrive(-auto_robot_move_speed, 0.0);
-        robot_move_state = Robot_Move_States.wait_for_move_complete;
-        break;
-     
-      case wait_for_move_complete:
-        if( robot_timer.get() > auto_robot_move_time )
-        {
-          myRobot.arcadeDrive(0.0, 0.0);         // Stop the robot
-          robot_timer.stop();                    // Stop the timer
-          robot_move_state = Robot_Move_States.finished;
-        }
-        else 
-          myRobot.arcadeDrive(-auto_robot_move_speed, 0.0);
-        break;
-      
-      case finished:
-        break;
-
-      default: 
-        robot_move_state = Robot_Move_States.idle;
-        break;
-
-    }
+    core.testPeriodic();
   }
 }
@@ -0,0 +1,712 @@
+/*----------------------------------------------------------------------------*/
+/* Copyright (c) 2017-2018 FIRST. All Rights Reserved.                        */
+/* Open Source Software - may be modified and shared by FRC teams. The code   */
+/* must be accompanied by the FIRST BSD license file in the root directory of */
+/* the project.                                                               */
+/*                                                                            */
+/* Everything the robot does each loop.  All devices come from the            */
+/* RobotHardware passed in, so this class has no wpilib code and runs the     */
+/* same on the roboRIO (WpiHardware) and on a desktop (FakeHardware).  Robot  */
+/* calls the functions here with the same names as the TimedRobot ones.       */
+/*                                                                            */
+/* The loop runs every LoopPeriod.  Each mode's periodic only reads the       */
+/* inputs and picks what the controls do; the work itself is in tasks that   */
+/* robotPeriodic() runs through the TaskScheduler, each at its own rate.      */
+/*                                                                            */
+/* Left Joystick at USB Port 0                                                */
+/* Right Joystick at USB Port 1                                               */
+/*----------------------------------------------------------------------------*/
+package frc.robot;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+
+public class RobotCore
+{
+  static final double LoopPeriod = 0.01;         // TimedRobot period, the fastest task rate
+
+  public RobotHardware hardware;
+  public RobotHardware.Stick LeftStick;
+  public RobotHardware.Stick RightStick;
+  public HidSnapshot LeftInput = new HidSnapshot();    // LeftStick as read at the start of this loop
+  public HidSnapshot RightInput = new HidSnapshot();   // RightStick as read at the start of this loop
+  public ButtonDebouncer Buttons = new ButtonDebouncer(LoopPeriod);   // both sticks' buttons, debounced
+  public RobotHardware.Drive myRobot;
+  private RobotHardware.Motor BallIntakeMotor;
+  private RobotHardware.Motor m_Left;
+  private RobotHardware.Motor m_Right;
+  private RobotHardware.Motor m_Winch;
+  public WinchEstimator winch_position;          // where the winch is, from speed and time
+  private double DriveCommand;                   // last commands sent, for the flight recorder
+  private double TurnCommand;
+  private double BallIntakeCommand;
+  private double WinchCommand;
+
+  public TimingWheel timers;                     // Every deadline timer, advanced once per loop
+  public Telemetry telemetry;                    // All dashboard values go through this object
+  public SystemStatus sysstat;                   // This object check game clock and pressure level
+  public Pneumatics lifts;                       // This object controls lift cyclinders
+  public volatile FlightRecorder recorder;       // Records every loop, null until started
+  public volatile UdpTelemetry udp;              // Streams the state to the driver station, null until started
+  private int match_phase = UdpTelemetry.Disabled;
+  public AutoRecorder auto_recorder;             // Records a practice run for autonomous, null when no file
+  public AutoPlayer auto_player = new AutoPlayer();   // Plays it back in autonomous
+  private File auto_file;
+  public RobotHardware.Camera[] cameras = new RobotHardware.Camera[2];
+  public volatile CameraGovernor camera_governor;     // Sets camera stream levels, null until the cameras start
+  public StartupStages startup = new StartupStages(); // Times each start up stage
+
+  public LoopProfiler profiler = new LoopProfiler(LoopPeriod);  // Times each subsystem in the loop
+  final int InputsTime = profiler.Add("Inputs");
+  public TaskScheduler scheduler = new TaskScheduler(LoopPeriod, profiler);  // Runs the tasks below, times each one
+  private boolean controls_enabled = false;      // a mode periodic ran this loop, so the controls run
+  private boolean ramp_drive = false;            // test mode, drive through the RampCurve
+
+  public TuningConfig config = new TuningConfig();    // Speeds, deadband etc., reloaded when the file changes
+  private TuningConfig.Values tuning = config.Get();  // the values in use this loop
+
+  final double WinchResolution = 0.25;           // inches between dashboard updates
+
+  // Joystick axis shaping: (deadband, normal scale, turbo scale, curve), all set by Apply_Tuning()
+  private final InputShaper DriveShaper = new InputShaper(0.0, 0.0, 0.0, InputCurve.Linear);
+  private final InputShaper TurnShaper = new InputShaper(0.0, 0.0, 0.0, InputCurve.Linear);
+  private final InputShaper DriveRampShaper = new InputShaper(0.0, 0.0, 0.0, InputCurve.Square);
+  private final InputShaper TurnRampShaper = new InputShaper(0.0, 0.0, 0.0, InputCurve.Square);
+  private final InputShaper IntakeShaper = new InputShaper(0.0, 0.0, 0.0, InputCurve.Linear);
+
+  final double RobotTopSpeed = 3.0;              // meters/sec. at full output, need to measure this
+  final double auto_move_distance = 3.6;         // meters, what 0.4 output for 3 seconds drove
+  final double auto_move_velocity = 1.2;         // meters/sec.
+  final double auto_move_acceleration = 1.5;     // meters/sec.^2, below wheel slip
+  final double auto_move_jerk_time = 0.2;        // seconds to round the acceleration corners
+  private MotionProfile auto_move;               // built in autonomousInit()
+  private ProfilePlayer move_player = new ProfilePlayer();
+  enum Robot_Move_States
+  {
+    idle,
+    set_up_move,
+    wait_for_move_complete,
+    replay,
+    finished
+  };
+
+  Robot_Move_States robot_move_state = Robot_Move_States.idle;
+
+
+  public RobotCore( RobotHardware hw )
+  {
+    hardware = hw;
+    timers = new TimingWheel(hardware.nanoTime());
+    telemetry = new Telemetry(hardware.Dashboard());
+    sysstat = new SystemStatus(hardware, telemetry, timers);
+  }
+
+
+  /*****************************************************************/
+  /* robotInit() - make the joysticks, motors and cylinders, the   */
+  /*               loop can start after this.  The cameras start   */
+  /*               on their own thread.                            */
+  /*****************************************************************/
+  public void robotInit()
+  {
+    telemetry.putString("Mode", "robotInit");
+    telemetry.SetEpsilon("BallIntake", 0.02);    // ignore joystick jitter on the intake speed
+
+    startup.Run("Drive", this::Init_Drive);
+    startup.Run("Pneumatics", () ->
+    {
+      lifts = new Pneumatics(hardware, LeftInput, Buttons, telemetry, timers, tuning);  // Lift cyclinders, controlled by Left JoyStick
+      lifts.Initialize();                        // Initialize lift cylinders
+    });
+    startup.Background("Cameras", this::Init_Cameras);
+
+    Buttons.Configure(ButtonDebouncer.Right, 2, 100, true);    // camera switch
+    Buttons.Configure(ButtonDebouncer.Right, 4, 100, true);    // auto record / replay
+    Buttons.Configure(ButtonDebouncer.Left, 8, 100, true);     // winch position reset
+    Apply_Tuning(config.Get());
+
+    //             name             task                       period  priority
+    scheduler.Add("Drive",          this::Drive_Task,          0.01,   TaskScheduler.Critical);
+    scheduler.Add("Cylinders",      this::Cylinder_Task,       0.02,   TaskScheduler.Critical);
+    scheduler.Add("Winch",          this::Winch_Task,          0.02,   TaskScheduler.Critical);
+    scheduler.Add("BallIntake",     this::BallIntake_Task,     0.02,   TaskScheduler.Critical);
+    scheduler.Add("AutoRecorder",   this::Auto_Record_Task,    0.02,   TaskScheduler.High);
+    scheduler.Add("FlightRecorder", this::Record_Flight,       0.02,   TaskScheduler.Normal);
+    scheduler.Add("UdpTelemetry",   this::Send_Udp_Telemetry,  0.02,   TaskScheduler.Normal);
+    scheduler.Add("SystemStatus",   sysstat::Check_System_Status, 0.2, TaskScheduler.Low);
+    scheduler.Add("Telemetry",      this::Telemetry_Task,      0.2,    TaskScheduler.Low);
+    scheduler.Add("Cameras",        this::Camera_Task,         0.2,    TaskScheduler.Low);
+  }
+
+
+  /*****************************************************************/
+  /* Init_Drive() - joysticks, motors and the drive.               */
+  /*****************************************************************/
+  private void Init_Drive()
+  {
+    LeftStick = hardware.Joystick(0);
+    RightStick = hardware.Joystick(1);
+    m_Left = hardware.Spark(0, 1);
+    m_Right = hardware.Spark(2, 3);
+    m_Winch = hardware.Spark(4, 5);
+    winch_position = new WinchEstimator(-tuning.WinchUpRate, 0.0, tuning.WinchTravel,    // negative speed winds up
+                                        WinchResolution, hardware.nanoTime());
+    BallIntakeMotor = hardware.Spark(6);
+    myRobot = hardware.DifferentialDrive(m_Left, m_Right);
+  }
+
+
+  /*****************************************************************/
+  /* Init_Cameras() - on a start up thread, as USB enumeration can */
+  /*                  be slow.  The loop runs without the governor */
+  /*                  until it is set here.                        */
+  /*****************************************************************/
+  private void Init_Cameras()
+  {
+    cameras[0] = hardware.Camera(0);
+    cameras[1] = hardware.Camera(1);
+    camera_governor = new CameraGovernor(cameras, LoopPeriod);
+  }
+
+
+  /*****************************************************************/
+  /* Apply_Tuning() - put a new set of tuning values in use.       */
+  /*****************************************************************/
+  private void Apply_Tuning( TuningConfig.Values t )
+  {
+    tuning = t;
+    DriveShaper.Configure(t.DeadBand, t.RobotNormalSpeed, t.RobotMaxSpeed, t.DriveCurve);
+    TurnShaper.Configure(t.DeadBand, t.RobotNormalTurnSpeed, t.RobotMaxTurnSpeed, t.TurnCurve);
+    DriveRampShaper.Configure(t.DeadBand, t.RobotNormalSpeed, t.RobotMaxSpeed, t.RampCurve);
+    TurnRampShaper.Configure(t.DeadBand, t.RobotNormalTurnSpeed, t.RobotMaxTurnSpeed, t.RampCurve);
+    IntakeShaper.Configure(t.DeadBand, t.BallIntakeMaxSpeed, t.BallIntakeMaxSpeed, t.IntakeCurve);
+    winch_position.Configure(-t.WinchUpRate, 0.0, t.WinchTravel);
+    lifts.Apply_Tuning(t);
+    sysstat.Set_Count_Down(t.TargetCountDown);
+  }
+
+
+  /*****************************************************************/
+  /* robotPeriodic() - runs after the mode periodic in every mode. */
+  /*                   Runs the tasks that are due, ends the loop. */
+  /*****************************************************************/
+  public void robotPeriodic()
+  {
+    startup.First_Loop();
+    long now = hardware.nanoTime();
+    timers.Advance(now);                         // also runs while disabled
+    scheduler.Run(now);
+    controls_enabled = false;                    // until the next mode periodic
+    profiler.End_Cycle();
+  }
+
+
+  /*****************************************************************/
+  /* Start_Flight_Recorder() - record every loop into file.  The   */
+  /*                           robot runs on without it if the     */
+  /*                           file can't be opened.               */
+  /*****************************************************************/
+  public void Start_Flight_Recorder( File file, int capacity )
+  {
+    try
+    {
+      recorder = new FlightRecorder(file, capacity);
+    }
+    catch( IOException e )
+    {
+      System.out.println( "FlightRecorder not started: " + e);
+      recorder = null;
+    }
+  }
+
+
+  /*****************************************************************/
+  /* Start_Udp_Telemetry() - stream the state to target.  The      */
+  /*                         robot runs on without it if the       */
+  /*                         channel can't be opened.              */
+  /*****************************************************************/
+  public void Start_Udp_Telemetry( InetSocketAddress target )
+  {
+    try
+    {
+      udp = new UdpTelemetry(target);
+    }
+    catch( IOException e )
+    {
+      System.out.println( "UdpTelemetry not started: " + e);
+      udp = null;
+    }
+  }
+
+
+  /*****************************************************************/
+  /* Set_Auto_File() - where practice runs are recorded and where  */
+  /*                   autonomous replays from.                    */
+  /*****************************************************************/
+  public void Set_Auto_File( File file )
+  {
+    auto_file = file;
+    auto_recorder = new AutoRecorder(file);
+    Load_Auto();
+  }
+
+
+  /*****************************************************************/
+  /* Load_Auto() - map the recording for replay, if there is one.  */
+  /*****************************************************************/
+  private void Load_Auto()
+  {
+    if( auto_file == null || !auto_file.exists() )
+      return;
+    try
+    {
+      auto_player.Open(auto_file);
+    }
+    catch( IOException e )
+    {
+      System.out.println( "AutoPlayer not loaded: " + e);
+    }
+  }
+
+
+  /*****************************************************************/
+  /* Record_Flight() - write this loop to the flight recorder.     */
+  /*****************************************************************/
+  private void Record_Flight()
+  {
+    FlightRecorder recorder = this.recorder;     // set by a start up thread
+    if( recorder == null )
+      return;
+    recorder.Record(hardware.nanoTime(), lifts.Get_Pressure_Volts(), lifts.Get_Pressure_State().ordinal(),
+                    lifts.Get_Cylinder_State(lifts.FrontLift).ordinal(),
+                    lifts.Get_Cylinder_State(lifts.RearLift).ordinal(),
+                    lifts.Get_Cylinder_State(lifts.BallGateway).ordinal(),
+                    DriveCommand, TurnCommand, BallIntakeCommand, winch_position.Get_Position());
+  }
+
+
+  /*****************************************************************/
+  /* Send_Udp_Telemetry() - hand this loop's state to the stream.  */
+  /*****************************************************************/
+  private void Send_Udp_Telemetry()
+  {
+    UdpTelemetry udp = this.udp;                 // set by a start up thread
+    if( udp == null )
+      return;
+    udp.Publish(hardware.nanoTime(), match_phase, lifts.Get_Pressure_State().ordinal(),
+                lifts.Get_Cylinder_State(lifts.FrontLift).ordinal(),
+                lifts.Get_Cylinder_State(lifts.RearLift).ordinal(),
+                lifts.Get_Cylinder_State(lifts.BallGateway).ordinal(), sysstat.Time_To_Climb(),
+                lifts.Get_Pressure_Volts(), DriveCommand, TurnCommand, BallIntakeCommand, WinchCommand,
+                winch_position.Get_Position());
+  }
+
+
+  /*****************************************************************/
+  /* disabledInit() - includes the end of a match.  Print the loop */
+  /*                  timing since the robot was last disabled.    */
+  /*****************************************************************/
+  public void disabledInit()
+  {
+    telemetry.putString("Mode", "disabledInit");
+    match_phase = UdpTelemetry.Disabled;
+    Set_Winch(0.0, false);                       // motors are off while disabled
+    Stop_Auto_Recording();
+    profiler.Report();
+    profiler.Reset();
+    scheduler.Report();
+    scheduler.Reset();
+  }
+
+  public void disabledPeriodic()
+  {
+    Read_Inputs();                               // keep button edges current, e.g. the camera switch
+  }
+
+
+  public void autonomousInit()
+  {
+    telemetry.putString("Mode", "autonomousInit");
+    match_phase = UdpTelemetry.Autonomous;
+    sysstat.StartGameClock();                    // Start Game Clock and monitor game elapsed time
+    robot_move_state = Robot_Move_States.idle;
+    auto_move = MotionProfile.S_Curve(auto_move_distance, auto_move_velocity, auto_move_acceleration,
+                                      auto_move_jerk_time, LoopPeriod);
+    Load_Auto();                                 // pick up a run recorded since robotInit
+  }
+
+  public void autonomousPeriodic()
+  {
+    Read_Inputs();
+    Enable_Controls(false);
+    if( Driver_Controls() )
+    {
+      if( RightInput.getRawButton(3) == true )
+      {
+        robot_move_state = Robot_Move_States.set_up_move;
+      }
+      else if( Buttons.Pressed(ButtonDebouncer.Right, 4) && auto_player.Is_Loaded() )
+      {
+        auto_player.Start(hardware.nanoTime());
+        robot_move_state = Robot_Move_States.replay;
+      }
+    }
+  }
+
+
+  public void teleopInit()
+  {
+    telemetry.putString("Mode", "teleopInit");
+    match_phase = UdpTelemetry.Teleop;
+    robot_move_state = Robot_Move_States.idle;   // drivers have the controls
+  }
+
+  public void teleopPeriodic()
+  {
+    Read_Inputs();
+    Enable_Controls(false);
+    Auto_Record_Controls();
+  }
+
+
+  public void testInit()
+  {
+    telemetry.putString("Mode", "testInit");
+    match_phase = UdpTelemetry.Test;
+    sysstat.StartGameClock();                    // Start Game Clock and monitor game elapsed time
+    robot_move_state = Robot_Move_States.idle;
+  }
+
+  public void testPeriodic()
+  {
+    Read_Inputs();
+    Enable_Controls(true);                       // Test Only - ramp drive, need input from drivers
+  }
+
+
+  /*****************************************************************/
+  /* Read_Inputs() - take this loop's snapshot of both joysticks.  */
+  /*                 Called first in each mode's periodic, since   */
+  /*                 robotPeriodic() runs after them.              */
+  /*****************************************************************/
+  private void Read_Inputs()
+  {
+    profiler.Begin_Cycle();
+    long t = profiler.Start();
+    long now = hardware.nanoTime();
+    LeftInput.Capture(LeftStick, now);
+    RightInput.Capture(RightStick, now);
+    TuningConfig.Values latest = config.Get();   // one volatile read
+    if( latest != tuning )
+      Apply_Tuning(latest);
+    Buttons.Update(LeftInput.getButtons(), RightInput.getButtons());
+    timers.Advance(now);                         // expire timers before the controls look
+    Camera_Switch();                             // button edges only last this loop
+    Winch_Reset();
+    profiler.Stop(InputsTime, t);
+  }
+
+
+  /*****************************************************************/
+  /* Enable_Controls() - let the control tasks run this loop.      */
+  /*                     ramp selects the RampCurve drive.         */
+  /*****************************************************************/
+  private void Enable_Controls( boolean ramp )
+  {
+    controls_enabled = true;
+    ramp_drive = ramp;
+  }
+
+  /* The drivers have the controls: enabled and no autonomous move or replay running. */
+  private boolean Driver_Controls()
+  {
+    return controls_enabled
+           && (robot_move_state == Robot_Move_States.idle || robot_move_state == Robot_Move_States.finished);
+  }
+
+
+  /*****************************************************************/
+  /* Drive_Task() - the autonomous move or replay when one is      */
+  /*                running, otherwise the drivers' drive.         */
+  /*****************************************************************/
+  private void Drive_Task()
+  {
+    if( !controls_enabled )
+      return;
+    switch ( robot_move_state )
+    {
+      case set_up_move:
+      case wait_for_move_complete:
+        Move_Robot_Controller();
+        break;
+
+      case replay:
+        Replay_Auto();
+        break;
+
+      default:
+        if( ramp_drive )
+          Drive_Ramp_Controls();
+        else
+          Drive_Controls();
+        break;
+    }
+  }
+
+
+  /*****************************************************************/
+  /* Cylinder_Task() / Winch_Task() / BallIntake_Task() - the      */
+  /*                   drivers' controls, left alone while an      */
+  /*                   autonomous move or replay runs.             */
+  /*****************************************************************/
+  private void Cylinder_Task()
+  {
+    if( Driver_Controls() )
+      lifts.Cylinder_Controls();
+  }
+
+  private void Winch_Task()
+  {
+    if( Driver_Controls() )
+      Winch_Controls();
+  }
+
+  private void BallIntake_Task()
+  {
+    if( Driver_Controls() )
+      BallInTake_Controls();
+  }
+
+
+  /*****************************************************************/
+  /* Telemetry_Task() - send the changed dashboard values.         */
+  /*****************************************************************/
+  private void Telemetry_Task()
+  {
+    telemetry.Flush(hardware.nanoTime());
+  }
+
+
+  /*****************************************************************/
+  /* Drive_Controls() - read rightstick to get speed               */
+  /*****************************************************************/
+  public void Drive_Controls()
+  {
+    boolean turbo = RightInput.getRawButton(1);
+    double DriveSpeed = DriveShaper.Shape(RightInput.getY(), turbo);
+    double TurnSpeed = TurnShaper.Shape(RightInput.getX(), turbo);
+
+    Arcade_Drive(-DriveSpeed, TurnSpeed);
+  }
+
+
+  /*****************************************************************/
+  /* Drive_Ramp_Controls() - drive through the RampCurve, square   */
+  /*                         by default, for a parabolic ramp.     */
+  /*****************************************************************/
+  public void Drive_Ramp_Controls()
+  {
+    boolean turbo = RightInput.getRawButton(1);
+    double DriveSpeed = DriveRampShaper.Shape(RightInput.getY(), turbo);
+    double TurnSpeed = TurnRampShaper.Shape(RightInput.getX(), turbo);
+
+    Arcade_Drive(-DriveSpeed, TurnSpeed);
+  }
+
+
+  /*****************************************************************/
+  /* Arcade_Drive() - drive the robot and remember the command.    */
+  /*****************************************************************/
+  private void Arcade_Drive( double speed, double rotation )
+  {
+    myRobot.arcadeDrive(speed, rotation);
+    DriveCommand = speed;
+    TurnCommand = rotation;
+  }
+
+
+  /*****************************************************************/
+  /* BallInTake_Controls() - read leftstick to get speed           */
+  /*****************************************************************/
+  public void BallInTake_Controls()
+  {
+    double BallIntakeSpeed = IntakeShaper.Shape(-LeftInput.getY(), false);
+
+    Set_Ball_Intake(BallIntakeSpeed);
+  }
+
+
+  /*****************************************************************/
+  /* Set_Ball_Intake() / Set_Winch() - run the motor and remember  */
+  /*                                   the command.  The winch     */
+  /*                                   stops at its soft limits    */
+  /*                                   when they are turned on,    */
+  /*                                   unless override is true.    */
+  /*****************************************************************/
+  private void Set_Ball_Intake( double speed )
+  {
+    BallIntakeMotor.set(speed);
+    BallIntakeCommand = speed;
+    telemetry.putNumber("BallIntake", speed);
+  }
+
+  private void Set_Winch( double speed, boolean override )
+  {
+    speed = winch_position.Command(speed, tuning.WinchLimits && !override, hardware.nanoTime());
+    m_Winch.set(speed);
+    WinchCommand = speed;
+    if( winch_position.Crossed_Step() )
+      telemetry.putNumber("WinchPosition", winch_position.Get_Step_Position());
+  }
+
+
+  /*****************************************************************/
+  /* Winch_Controls() - read leftstick button 3 to move up and     */
+  /*                    leftstick button 2 to move down.  Holding  */
+  /*                    button 9 overrides the soft limits.        */
+  /*****************************************************************/
+  public void Winch_Controls()
+  {
+    boolean override = LeftInput.getRawButton(9);
+    if( LeftInput.getRawButton(3) == true )
+      Set_Winch( -tuning.WinchMaxSpeed, override );
+    else if( LeftInput.getRawButton(2) == true )
+      Set_Winch( tuning.WinchMaxSpeed, override );
+    else
+      Set_Winch( 0.0, override );
+  }
+
+  /*****************************************************************/
+  /* Winch_Reset() - leftstick button 8 tells the estimate the     */
+  /*                 winch is at the bottom.                       */
+  /*****************************************************************/
+  private void Winch_Reset()
+  {
+    if( Buttons.Pressed(ButtonDebouncer.Left, 8) )
+    {
+      winch_position.Reset(0.0, hardware.nanoTime());
+      telemetry.putNumber("WinchPosition", 0.0);
+    }
+  }
+
+  /*****************************************************************/
+  /* Camera_Switch() - rightstick button 2 switches the camera the */
+  /*                   driver uses.                                */
+  /*****************************************************************/
+  private void Camera_Switch()
+  {
+    CameraGovernor governor = camera_governor;
+    if( governor != null && Buttons.Pressed(ButtonDebouncer.Right, 2) )
+    {
+      governor.Set_Active((governor.Get_Active() + 1) % cameras.length);
+      telemetry.putNumber("ActiveCamera", governor.Get_Active());
+    }
+  }
+
+  /*****************************************************************/
+  /* Camera_Task() - let the governor set the stream levels.       */
+  /*****************************************************************/
+  private void Camera_Task()
+  {
+    CameraGovernor governor = camera_governor;
+    if( governor != null )
+      governor.Update(hardware.nanoTime(), profiler.Period_Loop_Nanos());
+  }
+
+  /*****************************************************************/
+  /* Auto_Record_Controls() - rightstick button 4 starts and stops */
+  /*                          recording the driving for replay.    */
+  /*                          Auto_Record_Task() records.          */
+  /*****************************************************************/
+  private void Auto_Record_Controls()
+  {
+    if( auto_recorder == null )
+      return;
+    if( Buttons.Pressed(ButtonDebouncer.Right, 4) )
+    {
+      if( auto_recorder.Is_Recording() )
+        Stop_Auto_Recording();
+      else
+      {
+        if( !auto_recorder.Start(hardware.nanoTime()) )
+          System.out.println( "AutoRecorder not started: still saving the last run");
+        telemetry.putBoolean("AutoRecording", auto_recorder.Is_Recording());
+      }
+    }
+  }
+
+  private void Auto_Record_Task()
+  {
+    if( auto_recorder != null && auto_recorder.Is_Recording()
+        && !auto_recorder.Record(hardware.nanoTime(), DriveCommand, TurnCommand, BallIntakeCommand,
+                                 WinchCommand, Buttons.Get_Buttons(ButtonDebouncer.Left)) )
+      Stop_Auto_Recording();                     // file full
+  }
+
+  private void Stop_Auto_Recording()
+  {
+    if( auto_recorder == null || !auto_recorder.Is_Recording() )
+      return;
+    auto_recorder.Stop();                        // saved on its own thread
+    telemetry.putBoolean("AutoRecording", false);
+  }
+
+
+  /*****************************************************************/
+  /* Replay_Auto() - send the recorded commands for this time,     */
+  /*                 then stop everything.                         */
+  /*****************************************************************/
+  private void Replay_Auto()
+  {
+    if( auto_player.Step(hardware.nanoTime()) )
+    {
+      Arcade_Drive(0.0, 0.0);
+      Set_Ball_Intake(0.0);
+      Set_Winch(0.0, false);
+      robot_move_state = Robot_Move_States.finished;
+      return;
+    }
+    Arcade_Drive(auto_player.Get_Drive(), auto_player.Get_Turn());
+    Set_Ball_Intake(auto_player.Get_Intake());
+    Set_Winch(auto_player.Get_Winch(), false);
+    lifts.Cylinder_Controls(auto_player.Get_Buttons());
+  }
+
+
+  /*****************************************************************/
+  /* Move_Robot_Controller() - drive straight along the auto_move  */
+  /*                           profile, then stop.                 */
+  /*****************************************************************/
+  public void Move_Robot_Controller()
+  {
+    switch ( robot_move_state )
+    {
+      case idle:
+        break;
+
+      case set_up_move:
+        move_player.Start(auto_move, hardware.nanoTime());
+        Arcade_Drive(-move_player.Get_Velocity() / RobotTopSpeed, 0.0);
+        robot_move_state = Robot_Move_States.wait_for_move_complete;
+        break;
+
+      case wait_for_move_complete:
+        if( move_player.Step(hardware.nanoTime()) )
+        {
+          Arcade_Drive(0.0, 0.0);                // Stop the robot
+          robot_move_state = Robot_Move_States.finished;
+        }
+        else
+          Arcade_Drive(-move_player.Get_Velocity() / RobotTopSpeed, 0.0);
+        break;
+
+      case finished:
+        break;
+
+      default:
+        robot_move_state = Robot_Move_States.idle;
+        break;
+
+    }
+  }
+}
@@ -0,0 +1,87 @@
+/*-----------------------------------------------------------------------------*/
+/* Copyright (c) 2018 FIRST. All Rights Reserved.                              */
+/* Open Source Software - may be modified and shared by FRC teams. The code    */
+/* must be accompanied by the FIRST BSD license file in the root directory of  */
+/* the project.                                                                */
+/*                                                                             */
+/* Every device the robot code uses is made through this interface.           */
+/* WpiHardware builds the real wpilib devices on the roboRIO.  FakeHardware   */
+/* builds plain Java stand-ins, so the whole control loop can run on a        */
+/* desktop with no HAL, e.g. under a profiler or a benchmark.                 */
+/*-----------------------------------------------------------------------------*/
+
+package frc.robot;
+
+public interface RobotHardware
+{
+  /* Speed controller (or group of them), -1.0 to 1.0. */
+  interface Motor
+  {
+    void set( double speed );
+  }
+
+  /* Single solenoid valve. */
+  interface Valve
+  {
+    void set( boolean on );
+  }
+
+  /* Double solenoid valve, true = forward, false = reverse. */
+  interface DoubleValve
+  {
+    void set( boolean forward );
+  }
+
+  interface AirCompressor
+  {
+    void setClosedLoopControl( boolean on );
+  }
+
+  interface AnalogSensor
+  {
+    double getVoltage();
+  }
+
+  /* Joystick: buttons packed in an int, bit 0 = button 1. */
+  interface Stick
+  {
+    int getButtons();
+    int getAxisCount();
+    double getRawAxis( int axis );
+  }
+
+  interface Drive
+  {
+    void arcadeDrive( double speed, double rotation );
+  }
+
+  /* USB camera and its MJPEG stream. */
+  interface Camera
+  {
+    void setMode( int width, int height, int fps, int quality );
+    double getDataRate();                        // bytes per second
+  }
+
+  interface Dashboard
+  {
+    void putNumber( String key, double value );
+    void putBoolean( String key, boolean value );
+    void putString( String key, String value );
+  }
+
+  Motor Spark( int... channels );                // one Spark, or a group driven together
+  Valve Solenoid( int channel );
+  DoubleValve DoubleSolenoid( int forward_channel, int reverse_channel );
+  AirCompressor Compressor( int module );
+  AnalogSensor AnalogInput( int channel );
+  Stick Joystick( int port );
+  Drive DifferentialDrive( Motor left, Motor right );
+  Dashboard Dashboard();
+  Camera Camera( int device );                   // starts streaming to the dashboard
+
+  /* Monotonic time used by all control timing. */
+  long nanoTime();
+
+  /* Run task every period seconds on its own thread. */
+  void StartPeriodic( Runnable task, double period );
+}
@@ -0,0 +1,71 @@
+/*-----------------------------------------------------------------------------*/
+/* Copyright (c) 2018 FIRST. All Rights Reserved.                              */
+/* Open Source Software - may be modified and shared by FRC teams. The code    */
+/* must be accompanied by the FIRST BSD license file in the root directory of  */
+/* the project.                                                                */
+/*                                                                             */
+/* Runs robot start up in named stages and prints how long each one took, so */
+/* we can see what holds up the first control loop after a reboot.  Run()     */
+/* times a stage on the calling thread; Background() starts a daemon thread  */
+/* for stages the loop can do without at first, like the cameras, so slow     */
+/* USB enumeration doesn't keep the drive from starting.  First_Loop() prints */
+/* the time from start up, and from the JVM starting, to the first loop.     */
+/*-----------------------------------------------------------------------------*/
+
+package frc.robot;
+import java.lang.management.ManagementFactory;
+
+public class StartupStages
+{
+  private final long start = System.nanoTime();
+  private boolean first_loop = false;            // robot thread only
+
+
+  /*****************************************************************/
+  /* Run() - run stage now on this thread and print its time.      */
+  /*****************************************************************/
+  public void Run( String name, Runnable stage )
+  {
+    long t = System.nanoTime();
+    stage.run();
+    long now = System.nanoTime();
+    System.out.printf("Startup: %-16s %8.1f ms, done at %8.1f ms on %s%n", name, (now - t) / 1e6,
+                      (now - start) / 1e6, Thread.currentThread().getName());
+  }
+
+
+  /*****************************************************************/
+  /* Background() - run stage on its own daemon thread.  A stage   */
+  /*                that fails is printed; the robot runs on       */
+  /*                without it.                                    */
+  /*****************************************************************/
+  public void Background( String name, Runnable stage )
+  {
+    Thread thread = new Thread(() ->
+    {
+      try
+      {
+        Run(name, stage);
+      }
+      catch( RuntimeException e )
+      {
+        System.out.println( "Startup: " + name + " failed: " + e);
+      }
+    }, "Startup " + name);
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+
+  /*****************************************************************/
+  /* First_Loop() - call every loop; prints at the first one.      */
+  /*****************************************************************/
+  public void First_Loop()
+  {
+    if( first_loop )
+      return;
+    first_loop = true;
+    System.out.printf("Startup: first loop at %.1f ms, %d ms after the JVM started%n",
+                      (System.nanoTime() - start) / 1e6, ManagementFactory.getRuntimeMXBean().getUptime());
+  }
+}
@@ -6,7 +6,7 @@
 /*                                                                             */
 /* To keep from calling SmartDashboard every 20 msec., we will create a state  */
 /* controller for each system check.  After each state change, call            */
-/* SmartDashboard to update states.                                            */
+/* Telemetry to update states.                                                 */
 /*                                                                             */
 /* This class checks the pressure status.  If pressure voltages is above the   */
 /* target value, then pressure_ok is set to true.  This can be used by the     */
@@ -17,8 +17,6 @@
 /*-----------------------------------------------------------------------------*/
 
 package frc.robot;
-import edu.wpi.first.wpilibj.Timer;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 
 public class SystemStatus
 {
@@ -30,17 +28,24 @@ public class SystemStatus
     wait_for_false 
   };
 
-  final double TargetCountDown = 90.0;           // signal driver when countdown is 45 seconds.
+  private double TargetCountDown = 90.0;         // signal driver when countdown is 45 seconds.
   private SystemStates game_state;
   private boolean climb_now;
-  private Timer gclock = new Timer();
+  private RobotHardware hardware;
+  private Telemetry telemetry;
+  private TimingWheel timers;
+  private int gclock;                            // game clock timer
 
 
-  public SystemStatus()
+  public SystemStatus( RobotHardware hw, Telemetry tlm, TimingWheel timing )
   {
     System.out.println( "SystemStatus Constructor");
+    hardware = hw;
+    telemetry = tlm;
+    timers = timing;
+    gclock = timers.Add("GameClock");
     climb_now = false;
-    SmartDashboard.putBoolean("Climb", climb_now);
+    telemetry.putBoolean("Climb", climb_now);
     game_state = SystemStates.wait_for_activation;
   }
 
@@ -55,6 +60,16 @@ public class SystemStatus
   }
 
 
+  /*****************************************************************/
+  /* Set_Count_Down() - seconds into the match to signal climb.    */
+  /*                    Used from the next StartGameClock().       */
+  /*****************************************************************/ 
+  public void Set_Count_Down( double seconds )
+  {
+    TargetCountDown = seconds;
+  }
+
+
   /*****************************************************************/
   /* Time_To_Climb() - returns true if time remaining is less than */
   /*                   45 seconds.                                 */
@@ -77,25 +92,24 @@ public class SystemStatus
         break;
 
       case initialize:
-        gclock.reset();     
-        gclock.start(); 
+        timers.Start(gclock, TargetCountDown, hardware.nanoTime());
         climb_now = false;
-        SmartDashboard.putBoolean("Climb", climb_now);
+        telemetry.putBoolean("Climb", climb_now);
         game_state = SystemStates.wait_for_elapsetime;
         break;
     
       case wait_for_elapsetime:
-        if( gclock.get() > TargetCountDown )
+        if( timers.Expired(gclock) )
         {
           climb_now = true;
-          SmartDashboard.putBoolean("Climb", climb_now);
+          telemetry.putBoolean("Climb", climb_now);
           game_state = SystemStates.wait_for_activation;
         }
         break;
 
       default:
         climb_now = false;
-        SmartDashboard.putBoolean("Climb", climb_now);
+        telemetry.putBoolean("Climb", climb_now);
         game_state = SystemStates.wait_for_activation;
         break;
     }
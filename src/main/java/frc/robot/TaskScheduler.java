@@ -0,0 +1,168 @@
+/*-----------------------------------------------------------------------------*/
+/* Copyright (c) 2018 FIRST. All Rights Reserved.                              */
+/* Open Source Software - may be modified and shared by FRC teams. The code    */
+/* must be accompanied by the FIRST BSD license file in the root directory of  */
+/* the project.                                                                */
+/*                                                                             */
+/* Runs the robot's tasks, each at its own rate, from the one robot loop.     */
+/* A task is added with a period and a priority and runs on the first loop    */
+/* at or after it is due, highest priority first.  Every run is timed into    */
+/* the LoopProfiler and kept as an average cost.  Before a task that isn't    */
+/* Critical runs, the scheduler checks whether its average cost still fits    */
+/* in the part of the loop budget that is left; if not it is put off to the   */
+/* next loop, so a slow loop delays status and dashboard work instead of      */
+/* motor output.  A task put off MaxDefer loops in a row runs anyway.         */
+/*-----------------------------------------------------------------------------*/
+
+package frc.robot;
+
+public class TaskScheduler
+{
+  static final int Critical = 0;                 // never put off: motor outputs
+  static final int High = 1;
+  static final int Normal = 2;
+  static final int Low = 3;
+
+  final int MaxTasks = 16;
+  final double BudgetUse = 0.8;                  // put tasks off past this part of the loop budget
+  final int MaxDefer = 10;                       // loops in a row a task can be put off
+  final double CostFilter = 0.1;                 // weight of each new run in the average cost
+
+  private final LoopProfiler profiler;
+  private final long budget_nanos;
+  private final long tolerance_nanos;            // a task this close to due runs now
+  private int count = 0;
+  private boolean started = false;
+  private long last_run;                         // now at the last Run()
+
+  // Per task, kept in priority order
+  private final String[] names = new String[MaxTasks];
+  private final Runnable[] tasks = new Runnable[MaxTasks];
+  private final long[] period_nanos = new long[MaxTasks];
+  private final int[] priorities = new int[MaxTasks];
+  private final int[] sections = new int[MaxTasks];      // LoopProfiler section
+  private final long[] next_due = new long[MaxTasks];
+  private final double[] cost = new double[MaxTasks];     // average nanoseconds per run
+  private final long[] runs = new long[MaxTasks];
+  private final long[] deferrals = new long[MaxTasks];
+  private final int[] deferred_loops = new int[MaxTasks];
+
+
+  public TaskScheduler( double loop_period, LoopProfiler profiler )
+  {
+    this.profiler = profiler;
+    budget_nanos = (long)(loop_period * 1e9);
+    tolerance_nanos = budget_nanos / 2;
+  }
+
+
+  /*****************************************************************/
+  /* Add() - run task every period seconds.  Tasks with the same   */
+  /*         priority run in the order they were added.  A task    */
+  /*         added after Run() has started is due at the next one. */
+  /*****************************************************************/
+  public void Add( String name, Runnable task, double period, int priority )
+  {
+    if( count >= MaxTasks )
+      throw new IllegalStateException("TaskScheduler: too many tasks, adding " + name);
+    int at = count;
+    while( at > 0 && priorities[at - 1] > priority )
+    {
+      Move(at - 1, at);
+      at--;
+    }
+    names[at] = name;
+    tasks[at] = task;
+    period_nanos[at] = (long)(period * 1e9);
+    priorities[at] = priority;
+    sections[at] = profiler.Add(name);
+    next_due[at] = last_run;
+    cost[at] = 0.0;
+    runs[at] = 0;
+    deferrals[at] = 0;
+    deferred_loops[at] = 0;
+    count++;
+  }
+
+  private void Move( int from, int to )
+  {
+    names[to] = names[from];
+    tasks[to] = tasks[from];
+    period_nanos[to] = period_nanos[from];
+    priorities[to] = priorities[from];
+    sections[to] = sections[from];
+    next_due[to] = next_due[from];
+    cost[to] = cost[from];
+    runs[to] = runs[from];
+    deferrals[to] = deferrals[from];
+    deferred_loops[to] = deferred_loops[from];
+  }
+
+
+  /*****************************************************************/
+  /* Run() - run every task that is due at now.  Call once per     */
+  /*         loop, inside the profiler's cycle.                    */
+  /*****************************************************************/
+  public void Run( long now )
+  {
+    if( !started )
+    {
+      for( int i = 0; i < count; i++ )
+        next_due[i] = now;
+      started = true;
+    }
+    last_run = now;
+
+    for( int i = 0; i < count; i++ )
+    {
+      if( now - next_due[i] < -tolerance_nanos )
+        continue;                                // not due yet
+      if( priorities[i] != Critical && deferred_loops[i] < MaxDefer
+          && profiler.Cycle_Elapsed() + (long)cost[i] > budget_nanos * BudgetUse )
+      {
+        deferrals[i]++;
+        deferred_loops[i]++;
+        continue;
+      }
+
+      long t = profiler.Start();
+      tasks[i].run();
+      long elapsed = profiler.Stop(sections[i], t) - t;
+      cost[i] += (elapsed - cost[i]) * CostFilter;
+      runs[i]++;
+      deferred_loops[i] = 0;
+
+      next_due[i] += period_nanos[i];
+      if( now - next_due[i] > tolerance_nanos )  // fell a whole period behind, don't run twice
+        next_due[i] = now + period_nanos[i];
+    }
+  }
+
+
+  /*****************************************************************/
+  /* Report() - print each task's rate, cost and times put off.    */
+  /*****************************************************************/
+  public void Report()
+  {
+    StringBuilder sb = new StringBuilder();
+    sb.append(String.format("Tasks:%n  %-16s %8s %8s %10s %10s %10s%n",
+                            "task", "Hz", "priority", "runs", "avg ms", "put off"));
+    for( int i = 0; i < count; i++ )
+      sb.append(String.format("  %-16s %8.1f %8d %10d %10.3f %10d%n", names[i], 1e9 / period_nanos[i],
+                              priorities[i], runs[i], cost[i] / 1e6, deferrals[i]));
+    System.out.print(sb);
+  }
+
+
+  /*****************************************************************/
+  /* Reset() - clear the run and put off counts.                   */
+  /*****************************************************************/
+  public void Reset()
+  {
+    for( int i = 0; i < count; i++ )
+    {
+      runs[i] = 0;
+      deferrals[i] = 0;
+    }
+  }
+}
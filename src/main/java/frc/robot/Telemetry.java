@@ -0,0 +1,167 @@
+/*-----------------------------------------------------------------------------*/
+/* Copyright (c) 2018 FIRST. All Rights Reserved.                              */
+/* Open Source Software - may be modified and shared by FRC teams. The code    */
+/* must be accompanied by the FIRST BSD license file in the root directory of  */
+/* the project.                                                                */
+/*                                                                             */
+/* All dashboard values go through this class instead of SmartDashboard.      */
+/* They are written to the RobotHardware dashboard (SmartDashboard on the     */
+/* robot).                                                                    */
+/* The last value of each key is cached.  A key is only marked for sending    */
+/* when its value changes (numbers must move by more than the key's epsilon), */
+/* or when RefreshPeriod has passed since it was last sent so a dashboard     */
+/* that connects late still gets every value.  Flush() is called once at the */
+/* end of each loop and writes all marked keys together.                      */
+/*-----------------------------------------------------------------------------*/
+
+package frc.robot;
+import java.util.HashMap;
+
+public class Telemetry
+{
+  enum EntryTypes
+  {
+    number,
+    bool,
+    string
+  };
+
+  private static final class Entry
+  {
+    String key;
+    EntryTypes type;
+    double epsilon;
+    double number;                               // last value accepted for sending
+    double latest;                               // last value put, may be within epsilon
+    boolean bool;
+    String text;
+    boolean has_value;                           // false until the first put
+    boolean changed;
+    long last_sent_time;
+  }
+
+  final int MaxEntries = 64;
+  final double DefaultEpsilon = 0.01;            // numbers must move more than this to be sent
+  final double RefreshPeriod = 1.0;              // resend unchanged values every second
+
+  private final RobotHardware.Dashboard dashboard;
+  private final HashMap<String, Entry> lookup = new HashMap<>();
+  private final Entry[] entries = new Entry[MaxEntries];
+  private int entry_count = 0;
+  private final long refresh_nanos = (long)(RefreshPeriod * 1e9);
+
+
+  public Telemetry( RobotHardware.Dashboard dashboard )
+  {
+    System.out.println( "Telemetry Constructor");
+    this.dashboard = dashboard;
+  }
+
+
+  /*****************************************************************/
+  /* SetEpsilon() - smallest change of a number key that will be   */
+  /*                sent to the dashboard.                         */
+  /*****************************************************************/
+  public void SetEpsilon( String key, double epsilon )
+  {
+    Get_Entry(key, EntryTypes.number).epsilon = epsilon;
+  }
+
+
+  /*****************************************************************/
+  /* putNumber() / putBoolean() / putString() - cache the value    */
+  /*               and mark it for the next Flush() if it changed. */
+  /*****************************************************************/
+  public void putNumber( String key, double value )
+  {
+    Entry e = Get_Entry(key, EntryTypes.number);
+    e.latest = value;
+    if( !e.has_value || Math.abs(value - e.number) > e.epsilon )
+    {
+      e.has_value = true;
+      e.number = value;
+      e.changed = true;
+    }
+  }
+
+  public void putBoolean( String key, boolean value )
+  {
+    Entry e = Get_Entry(key, EntryTypes.bool);
+    if( !e.has_value || value != e.bool )
+    {
+      e.has_value = true;
+      e.bool = value;
+      e.changed = true;
+    }
+  }
+
+  public void putString( String key, String value )
+  {
+    Entry e = Get_Entry(key, EntryTypes.string);
+    if( !e.has_value || !value.equals(e.text) )
+    {
+      e.has_value = true;
+      e.text = value;
+      e.changed = true;
+    }
+  }
+
+
+  /*****************************************************************/
+  /* Flush() - write every changed or stale key to the dashboard.  */
+  /*           Call once at the end of each loop, now in nanosec.  */
+  /*****************************************************************/
+  public void Flush( long now )
+  {
+    for( int i = 0; i < entry_count; i++ )
+    {
+      Entry e = entries[i];
+      if( e.has_value && (e.changed || (now - e.last_sent_time) >= refresh_nanos) )
+      {
+        if( e.type == EntryTypes.number )
+          e.number = e.latest;
+        switch( e.type )
+        {
+          case number:
+            dashboard.putNumber(e.key, e.number);
+            break;
+
+          case bool:
+            dashboard.putBoolean(e.key, e.bool);
+            break;
+
+          case string:
+            dashboard.putString(e.key, e.text);
+            break;
+        }
+        e.changed = false;
+        e.last_sent_time = now;
+      }
+    }
+  }
+
+
+  /*****************************************************************/
+  /* Get_Entry() - find the entry for a key, creating it the first */
+  /*               time the key is used.                           */
+  /*****************************************************************/
+  private Entry Get_Entry( String key, EntryTypes type )
+  {
+    Entry e = lookup.get(key);
+    if( e == null )
+    {
+      if( entry_count >= MaxEntries )
+        throw new IllegalStateException("Telemetry: too many keys, adding " + key);
+      e = new Entry();
+      e.key = key;
+      e.type = type;
+      e.epsilon = DefaultEpsilon;
+      e.text = "";
+      entries[entry_count++] = e;
+      lookup.put(key, e);
+    }
+    else if( e.type != type )
+      throw new IllegalArgumentException("Telemetry: " + key + " is a " + e.type + " key");
+    return e;
+  }
+}
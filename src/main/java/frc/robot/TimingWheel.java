@@ -0,0 +1,158 @@
+/*-----------------------------------------------------------------------------*/
+/* Copyright (c) 2018 FIRST. All Rights Reserved.                              */
+/* Open Source Software - may be modified and shared by FRC teams. The code    */
+/* must be accompanied by the FIRST BSD license file in the root directory of  */
+/* the project.                                                                */
+/*                                                                             */
+/* One set of deadline timers for the whole robot, kept in a hashed timing    */
+/* wheel on the RobotHardware clock.  A subsystem Add()s its timers once,     */
+/* Start()s one with a delay and checks Expired() when it wants to know.     */
+/* Advance() is called at the start of the loop; it only visits the wheel     */
+/* slots for the ticks that passed since the last call and the timers in     */
+/* them, so timers that are far from their deadline cost nothing.  Timers    */
+/* live in arrays made when they are added: nothing allocates after that.    */
+/* A timer never expires early and at most one Tick late.                    */
+/*-----------------------------------------------------------------------------*/
+
+package frc.robot;
+
+public class TimingWheel
+{
+  final int MaxTimers = 32;
+  static final int SlotBits = 8;
+  static final int Slots = 1 << SlotBits;       // 256 slots of Tick = 1.28 s per turn
+  static final int SlotMask = Slots - 1;
+  static final long TickNanos = 5000000;         // 5 msec.
+  static final int None = -1;
+
+  private final String[] names = new String[MaxTimers];
+  private final long[] deadline_ticks = new long[MaxTimers];
+  private final boolean[] running = new boolean[MaxTimers];
+  private final boolean[] expired = new boolean[MaxTimers];
+  private final int[] next = new int[MaxTimers];         // timers in the same slot, None = end
+  private final int[] prev = new int[MaxTimers];
+  private final int[] heads = new int[Slots];
+  private int count = 0;
+  private long current_tick;                     // last tick Advance() finished
+
+
+  public TimingWheel( long now )
+  {
+    for( int i = 0; i < Slots; i++ )
+      heads[i] = None;
+    current_tick = Math.floorDiv(now, TickNanos);
+  }
+
+
+  /*****************************************************************/
+  /* Add() - make a stopped timer and return its id.               */
+  /*****************************************************************/
+  public int Add( String name )
+  {
+    if( count >= MaxTimers )
+      throw new IllegalStateException("TimingWheel: too many timers, adding " + name);
+    names[count] = name;
+    return count++;
+  }
+
+
+  /*****************************************************************/
+  /* Start() - (re)start a timer to expire seconds after now.      */
+  /*****************************************************************/
+  public void Start( int id, double seconds, long now )
+  {
+    if( running[id] )
+      Unlink(id);
+    long deadline = now + (long)(seconds * 1e9);
+    long tick = Math.floorDiv(deadline + TickNanos - 1, TickNanos);   // round up, never early
+    if( tick <= current_tick )
+      tick = current_tick + 1;                   // already due, expire on the next Advance()
+    deadline_ticks[id] = tick;
+    Link(id);
+    running[id] = true;
+    expired[id] = false;
+  }
+
+
+  /*****************************************************************/
+  /* Cancel() - stop a timer and clear its expired flag.           */
+  /*****************************************************************/
+  public void Cancel( int id )
+  {
+    if( running[id] )
+      Unlink(id);
+    running[id] = false;
+    expired[id] = false;
+  }
+
+
+  /*****************************************************************/
+  /* Expired() - true from the Advance() that passed the deadline  */
+  /*             until the timer is started or cancelled again.    */
+  /*****************************************************************/
+  public boolean Expired( int id )
+  {
+    return expired[id];
+  }
+
+  public boolean Is_Running( int id )
+  {
+    return running[id];
+  }
+
+  public String Get_Name( int id )
+  {
+    return names[id];
+  }
+
+
+  /*****************************************************************/
+  /* Advance() - expire every timer whose deadline is at or before */
+  /*             now.  Visits each tick since the last call once;  */
+  /*             after a gap longer than a turn, every slot once.  */
+  /*****************************************************************/
+  public void Advance( long now )
+  {
+    long target = Math.floorDiv(now, TickNanos);
+    if( target <= current_tick )
+      return;
+    long first = Math.max(current_tick + 1, target - Slots + 1);
+    for( long tick = first; tick <= target; tick++ )
+    {
+      int id = heads[(int)(tick & SlotMask)];
+      while( id != None )
+      {
+        int after = next[id];
+        if( deadline_ticks[id] <= target )       // later turns stay in the slot
+        {
+          Unlink(id);
+          running[id] = false;
+          expired[id] = true;
+        }
+        id = after;
+      }
+    }
+    current_tick = target;
+  }
+
+
+  private void Link( int id )
+  {
+    int slot = (int)(deadline_ticks[id] & SlotMask);
+    prev[id] = None;
+    next[id] = heads[slot];
+    if( heads[slot] != None )
+      prev[heads[slot]] = id;
+    heads[slot] = id;
+  }
+
+  private void Unlink( int id )
+  {
+    if( prev[id] != None )
+      next[prev[id]] = next[id];
+    else
+      heads[(int)(deadline_ticks[id] & SlotMask)] = next[id];
+    if( next[id] != None )
+      prev[next[id]] = prev[id];
+  }
+}
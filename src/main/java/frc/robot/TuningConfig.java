@@ -0,0 +1,292 @@
+/*-----------------------------------------------------------------------------*/
+/* Copyright (c) 2018 FIRST. All Rights Reserved.                              */
+/* Open Source Software - may be modified and shared by FRC teams. The code    */
+/* must be accompanied by the FIRST BSD license file in the root directory of  */
+/* the project.                                                                */
+/*                                                                             */
+/* Tuning values that can change without a restart.  They are read from a     */
+/* properties file (src/main/deploy/tuning.properties, deployed to            */
+/* /home/lvuser/deploy) by a background thread that watches the file with a  */
+/* WatchService.  Each time the file changes the thread parses it into a new  */
+/* Values object and swaps it in with one volatile write.  The control loop   */
+/* calls Get() once per loop - a single volatile read, no parsing - and only  */
+/* applies the values when the object changed.  A key that is missing, can't */
+/* be read or is out of range keeps its last value.                          */
+/*-----------------------------------------------------------------------------*/
+
+package frc.robot;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Properties;
+
+public class TuningConfig
+{
+  /* One complete set of tuning values.  Never changed once made. */
+  public static final class Values
+  {
+    public final double CylinderActuationTime;   // seconds
+    public final double PressureMax;             // volts, pressure ok at or above
+    public final double PressureHysteresis;      // volts, pressure lost below PressureMax minus this
+    public final double PressureMinimum;         // volts, lowest pressure a lift stroke may end at
+    public final double DeadBand;
+    public final double RobotMaxSpeed;
+    public final double RobotMaxTurnSpeed;
+    public final double RobotNormalSpeed;
+    public final double RobotNormalTurnSpeed;
+    public final double BallIntakeMaxSpeed;
+    public final double WinchMaxSpeed;
+    public final boolean WinchLimits;            // stop the winch at the soft limits, once calibrated
+    public final double WinchUpRate;             // inches/sec. at full speed up
+    public final double WinchTravel;             // inches from the bottom to the top soft limit
+    public final double TargetCountDown;         // seconds into the match to signal climb
+    public final InputCurve DriveCurve;          // joystick response of each axis
+    public final InputCurve TurnCurve;
+    public final InputCurve RampCurve;           // drive and turn in test mode
+    public final InputCurve IntakeCurve;
+
+    static final double MaxDeadBand = 0.5;       // a wider band leaves too little of the stick
+    static final double MaxVolts = 5.0;          // pressure sensor output range
+    static final double MaxTime = 150.0;         // seconds, one match
+    static final double MaxWinch = 100.0;        // inches, and inches/sec.
+
+    /* The values built into the code. */
+    Values()
+    {
+      CylinderActuationTime = 1.25;              // Need to measure this
+      PressureMax = 2.0;                         // change when ready to deploy
+      PressureHysteresis = 0.15;
+      PressureMinimum = 1.5;                     // Need to measure this
+      DeadBand = 0.1;
+      RobotMaxSpeed = 1;
+      RobotMaxTurnSpeed = 0.85;
+      RobotNormalSpeed = .80;
+      RobotNormalTurnSpeed = 0.70;
+      BallIntakeMaxSpeed = 1.0;
+      WinchMaxSpeed = 1.0;
+      WinchLimits = false;                       // until the rate and travel are measured
+      WinchUpRate = 2.0;                         // Need to measure this
+      WinchTravel = 24.0;                        // Need to measure this
+      TargetCountDown = 90.0;
+      DriveCurve = InputCurve.Linear;
+      TurnCurve = InputCurve.Linear;
+      RampCurve = InputCurve.Square;
+      IntakeCurve = InputCurve.Linear;
+    }
+
+    /* The values in p, and the ones in last for keys p doesn't have. */
+    Values( Properties p, Values last )
+    {
+      CylinderActuationTime = Read(p, "CylinderActuationTime", last.CylinderActuationTime, 0.0, MaxTime);
+      PressureMax = Read(p, "PressureMax", last.PressureMax, 0.0, MaxVolts);
+      PressureHysteresis = Read(p, "PressureHysteresis", last.PressureHysteresis, 0.0, MaxVolts);
+      PressureMinimum = Read(p, "PressureMinimum", last.PressureMinimum, 0.0, MaxVolts);
+      DeadBand = Read(p, "DeadBand", last.DeadBand, 0.0, MaxDeadBand);
+      RobotMaxSpeed = Read(p, "RobotMaxSpeed", last.RobotMaxSpeed, 0.0, 1.0);
+      RobotMaxTurnSpeed = Read(p, "RobotMaxTurnSpeed", last.RobotMaxTurnSpeed, 0.0, 1.0);
+      RobotNormalSpeed = Read(p, "RobotNormalSpeed", last.RobotNormalSpeed, 0.0, 1.0);
+      RobotNormalTurnSpeed = Read(p, "RobotNormalTurnSpeed", last.RobotNormalTurnSpeed, 0.0, 1.0);
+      BallIntakeMaxSpeed = Read(p, "BallIntakeMaxSpeed", last.BallIntakeMaxSpeed, 0.0, 1.0);
+      WinchMaxSpeed = Read(p, "WinchMaxSpeed", last.WinchMaxSpeed, 0.0, 1.0);
+      WinchLimits = Read_Flag(p, "WinchLimits", last.WinchLimits);
+      WinchUpRate = Read(p, "WinchUpRate", last.WinchUpRate, 0.0, MaxWinch);
+      WinchTravel = Read(p, "WinchTravel", last.WinchTravel, 0.0, MaxWinch);
+      TargetCountDown = Read(p, "TargetCountDown", last.TargetCountDown, 0.0, MaxTime);
+      DriveCurve = Read_Curve(p, "DriveCurve", last.DriveCurve);
+      TurnCurve = Read_Curve(p, "TurnCurve", last.TurnCurve);
+      RampCurve = Read_Curve(p, "RampCurve", last.RampCurve);
+      IntakeCurve = Read_Curve(p, "IntakeCurve", last.IntakeCurve);
+    }
+
+    /* A value outside min to max, NaN included, is as bad as one that doesn't parse. */
+    private static double Read( Properties p, String key, double last, double min, double max )
+    {
+      String text = p.getProperty(key);
+      if( text == null )
+        return last;
+      double value;
+      try
+      {
+        value = Double.parseDouble(text.trim());
+      }
+      catch( NumberFormatException e )
+      {
+        System.out.println( "TuningConfig: bad value for " + key + ": " + text);
+        return last;
+      }
+      if( !(value >= min && value <= max) )
+      {
+        System.out.println( "TuningConfig: " + key + " must be " + min + " to " + max + ": " + text);
+        return last;
+      }
+      return value;
+    }
+
+    /* true or false. */
+    private static boolean Read_Flag( Properties p, String key, boolean last )
+    {
+      String text = p.getProperty(key);
+      if( text == null )
+        return last;
+      text = text.trim();
+      if( text.equalsIgnoreCase("true") )
+        return true;
+      if( text.equalsIgnoreCase("false") )
+        return false;
+      System.out.println( "TuningConfig: bad value for " + key + ": " + text);
+      return last;
+    }
+
+    /* Curve name, with CurveExpo for expo and CurveSplinePoints (y at even x, comma separated) for spline. */
+    private static InputCurve Read_Curve( Properties p, String key, InputCurve last )
+    {
+      String text = p.getProperty(key);
+      if( text == null )
+        return last;
+      try
+      {
+        double expo = Double.parseDouble(p.getProperty("CurveExpo", "0.5").trim());
+        String[] parts = p.getProperty("CurveSplinePoints", "0, 1").split(",");
+        double[] points = new double[parts.length];
+        for( int i = 0; i < parts.length; i++ )
+          points[i] = Double.parseDouble(parts[i].trim());
+        return InputCurve.Parse(text, expo, points);
+      }
+      catch( IllegalArgumentException e )         // also NumberFormatException
+      {
+        System.out.println( "TuningConfig: bad curve for " + key + ": " + e.getMessage());
+        return last;
+      }
+    }
+  }
+
+  final double SettleTime = 0.1;                 // seconds to let a deploy finish writing the file
+
+  private volatile Values current = new Values();
+  private File file;
+  private WatchService watcher;
+
+
+  /*****************************************************************/
+  /* Get() - the latest values.  One volatile read.                */
+  /*****************************************************************/
+  public Values Get()
+  {
+    return current;
+  }
+
+
+  /*****************************************************************/
+  /* Start() - load file now and reload it whenever it changes.    */
+  /*           Without the file the built in values are used.      */
+  /*****************************************************************/
+  public void Start( File file )
+  {
+    this.file = file.getAbsoluteFile();
+    Load();
+    try
+    {
+      watcher = this.file.toPath().getFileSystem().newWatchService();
+      this.file.getParentFile().toPath().register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                                                  StandardWatchEventKinds.ENTRY_MODIFY);
+    }
+    catch( IOException e )
+    {
+      System.out.println( "TuningConfig: not watching " + file + ": " + e);
+      return;
+    }
+    Thread thread = new Thread(this::Watch_Loop, "TuningConfig");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+
+  /*****************************************************************/
+  /* Stop() - stop watching the file.                              */
+  /*****************************************************************/
+  public void Stop() throws IOException
+  {
+    if( watcher != null )
+      watcher.close();
+  }
+
+
+  /*****************************************************************/
+  /* Load() - parse the file and swap the new values in.           */
+  /*****************************************************************/
+  void Load()
+  {
+    if( !file.exists() )
+      return;
+    Properties p = new Properties();
+    try( InputStream in = Files.newInputStream(file.toPath()) )
+    {
+      p.load(in);
+    }
+    catch( IOException e )
+    {
+      System.out.println( "TuningConfig: can't read " + file + ": " + e);
+      return;
+    }
+    Apply(p);
+    System.out.println( "TuningConfig loaded " + file);
+  }
+
+
+  /*****************************************************************/
+  /* Apply() - swap in the values in p over the current ones.      */
+  /*****************************************************************/
+  void Apply( Properties p )
+  {
+    current = new Values(p, current);
+  }
+
+
+  /*****************************************************************/
+  /* Watch_Loop() - background thread, reload when the file in the */
+  /*                watched directory changes.                     */
+  /*****************************************************************/
+  private void Watch_Loop()
+  {
+    Path name = file.toPath().getFileName();
+    while( true )
+    {
+      WatchKey key;
+      try
+      {
+        key = watcher.take();
+      }
+      catch( InterruptedException | ClosedWatchServiceException e )
+      {
+        return;
+      }
+
+      boolean changed = false;
+      for( WatchEvent<?> event : key.pollEvents() )
+        if( name.equals(event.context()) )
+          changed = true;
+      if( !key.reset() )
+        return;                                  // directory is gone
+
+      if( changed )
+      {
+        try
+        {
+          Thread.sleep((long)(SettleTime * 1000));
+        }
+        catch( InterruptedException e )
+        {
+          return;
+        }
+        Load();
+      }
+    }
+  }
+}
@@ -0,0 +1,166 @@
+/*-----------------------------------------------------------------------------*/
+/* Copyright (c) 2018 FIRST. All Rights Reserved.                              */
+/* Open Source Software - may be modified and shared by FRC teams. The code    */
+/* must be accompanied by the FIRST BSD license file in the root directory of  */
+/* the project.                                                                */
+/*                                                                             */
+/* Streams the robot state as one fixed layout UDP datagram per Publish(),   */
+/* next to the dashboard keys.  The loop only writes the values into a few   */
+/* volatile longs under a sequence count (odd while writing) and wakes the    */
+/* sender thread; the sender copies them out, retrying if the loop was part   */
+/* way through, packs the datagram into one reused direct ByteBuffer and      */
+/* writes it to a connected DatagramChannel.  No allocation and no socket     */
+/* call on the control loop.  If the sender falls behind it sends the latest  */
+/* state and the receiver counts the skipped sequence numbers as dropped.    */
+/* UdpTelemetryReceiver decodes the stream on a desktop.                     */
+/*                                                                             */
+/* Datagram (little endian):                                                   */
+/*    0 int   Magic                                                            */
+/*    4 int   Version                                                          */
+/*    8 long  sequence number, one per Publish()                               */
+/*   16 long  time, nanoseconds                                                */
+/*   24 byte  match phase, pressure state, front lift, rear lift,             */
+/*            ball gateway states, climb (1 = time to climb), 2 spare          */
+/*   32 float pressure volts                                                   */
+/*   36 float drive command                                                    */
+/*   40 float turn command                                                     */
+/*   44 float ball intake speed                                                */
+/*   48 float winch command                                                    */
+/*   52 float winch position, inches                                          */
+/*-----------------------------------------------------------------------------*/
+
+package frc.robot;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.DatagramChannel;
+import java.util.concurrent.locks.LockSupport;
+
+public class UdpTelemetry
+{
+  static final int Magic = 0x4D4C5455;           // "UTLM"
+  static final int Version = 1;
+  static final int PacketSize = 56;
+
+  // Match phases
+  static final int Disabled = 0;
+  static final int Autonomous = 1;
+  static final int Teleop = 2;
+  static final int Test = 3;
+
+  final double WakePeriod = 0.1;                 // seconds, sender checks running at least this often
+
+  private final DatagramChannel channel;
+  private final ByteBuffer packet = ByteBuffer.allocateDirect(PacketSize).order(ByteOrder.LITTLE_ENDIAN);
+  private final Thread sender;
+  private volatile boolean running = true;
+
+  // Written by the loop only, read by the sender
+  private volatile long published = 0;           // 2 per Publish(), odd while writing
+  private volatile long time;
+  private volatile long states;                  // bytes 24-31 of the datagram
+  private volatile long volts_drive;             // float bits, high / low
+  private volatile long turn_intake;
+  private volatile long winch;                   // command / position
+
+  private long send_errors = 0;                  // sender thread only
+
+
+  /*****************************************************************/
+  /* UdpTelemetry() - open the channel to target and start the     */
+  /*                  sender.  target may be a broadcast address.  */
+  /*****************************************************************/
+  public UdpTelemetry( InetSocketAddress target ) throws IOException
+  {
+    channel = DatagramChannel.open();
+    channel.setOption(StandardSocketOptions.SO_BROADCAST, true);
+    channel.connect(target);
+    sender = new Thread(this::Send_Loop, "UdpTelemetry");
+    sender.setDaemon(true);
+    sender.start();
+    System.out.println( "UdpTelemetry to " + target);
+  }
+
+
+  /*****************************************************************/
+  /* Publish() - hand this loop's state to the sender.             */
+  /*****************************************************************/
+  public void Publish( long now, int phase, int pressure_state, int front_lift, int rear_lift,
+                       int ball_gateway, boolean climb, double pressure_volts, double drive,
+                       double turn, double intake, double winch_command, double winch_position )
+  {
+    published++;                                 // odd: the sender waits
+    time = now;
+    states = (phase & 0xFF) | (pressure_state & 0xFF) << 8 | (front_lift & 0xFF) << 16
+             | (rear_lift & 0xFF) << 24 | (long)(ball_gateway & 0xFF) << 32 | (climb ? 1L : 0L) << 40;
+    volts_drive = Pack(pressure_volts, drive);
+    turn_intake = Pack(turn, intake);
+    winch = Pack(winch_command, winch_position);
+    published++;
+    LockSupport.unpark(sender);
+  }
+
+  private static long Pack( double high, double low )
+  {
+    return ((long)Float.floatToRawIntBits((float)high) << 32)
+           | (Float.floatToRawIntBits((float)low) & 0xFFFFFFFFL);
+  }
+
+
+  /*****************************************************************/
+  /* Close() - stop the sender and close the channel.              */
+  /*****************************************************************/
+  public void Close() throws IOException
+  {
+    running = false;
+    LockSupport.unpark(sender);
+    channel.close();
+  }
+
+
+  /*****************************************************************/
+  /* Send_Loop() - background thread, send each new state once.    */
+  /*****************************************************************/
+  private void Send_Loop()
+  {
+    long sent = 0;
+    while( running )
+    {
+      LockSupport.parkNanos(this, (long)(WakePeriod * 1e9));
+      long count = published;
+      if( count == sent || (count & 1) != 0 )
+        continue;                                // nothing new, or the loop is writing
+
+      packet.putLong(16, time);
+      packet.putLong(24, states);
+      packet.putLong(32, Swap(volts_drive));
+      packet.putLong(40, Swap(turn_intake));
+      packet.putLong(48, Swap(winch));
+      if( published != count )
+        continue;                                // the loop wrote meanwhile, wait for its wake up
+
+      packet.putInt(0, Magic);
+      packet.putInt(4, Version);
+      packet.putLong(8, count / 2 - 1);
+      packet.clear();
+      try
+      {
+        channel.write(packet);
+      }
+      catch( IOException e )                     // nobody listening yet, or the link is down
+      {
+        if( send_errors++ == 0 )
+          System.out.println( "UdpTelemetry: " + e);
+      }
+      sent = count;
+    }
+  }
+
+  /* Pack() has the first float high; the datagram has it first in memory. */
+  private static long Swap( long packed )
+  {
+    return (packed >>> 32) | (packed << 32);
+  }
+}
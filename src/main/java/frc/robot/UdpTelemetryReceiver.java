@@ -0,0 +1,153 @@
+/*-----------------------------------------------------------------------------*/
+/* Copyright (c) 2018 FIRST. All Rights Reserved.                              */
+/* Open Source Software - may be modified and shared by FRC teams. The code    */
+/* must be accompanied by the FIRST BSD license file in the root directory of  */
+/* the project.                                                                */
+/*                                                                             */
+/* Listens for the UdpTelemetry stream, on the driver station or on the      */
+/* desktop next to HeadlessLoop, and prints the latest state with the        */
+/* received, dropped, out of order and duplicate datagram counts every       */
+/* ReportPeriod.  A gap in the sequence numbers counts as dropped, and a     */
+/* datagram that fills a gap later, within MaxLate numbers and MaxLateTime,  */
+/* counts as out of order instead.  The sequence number going back with the */
+/* time going on, back more than MaxLate, or the time going back more than  */
+/* MaxLateTime, is a robot restart: numbering starts again from 0.          */
+/*     ./gradlew receiveTelemetry -Pport=5800                                 */
+/*-----------------------------------------------------------------------------*/
+
+package frc.robot;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.DatagramChannel;
+
+public final class UdpTelemetryReceiver
+{
+  static final double ReportPeriod = 1.0;        // seconds between prints
+  static final int MaxLate = 256;                // sequence numbers a late datagram may be behind
+  static final double MaxLateTime = 5.0;         // seconds a late datagram's time may be behind
+  static final String[] Phases = { "disabled", "autonomous", "teleop", "test" };
+  static final PressureStates[] Pressure = PressureStates.values();
+  static final CylinderStates[] Cylinder = CylinderStates.values();
+
+  long received = 0;
+  long dropped = 0;
+  long out_of_order = 0;
+  long duplicates = 0;
+  long restarts = 0;
+  long bad = 0;
+  private long expected = -1;                    // next sequence number, -1 before the first
+  private long latest_time;                      // time of the datagram numbered expected - 1
+  private final boolean[] missing = new boolean[MaxLate];   // by sequence % MaxLate, the last MaxLate numbers
+  private final long max_late_nanos = (long)(MaxLateTime * 1e9);
+
+
+  UdpTelemetryReceiver()
+  {
+  }
+
+  public static void main( String... args ) throws IOException
+  {
+    int port = args.length > 0 ? Integer.parseInt(args[0]) : 5800;
+    new UdpTelemetryReceiver().Run(port);
+  }
+
+
+  /*****************************************************************/
+  /* Run() - receive until stopped, printing every ReportPeriod.   */
+  /*****************************************************************/
+  private void Run( int port ) throws IOException
+  {
+    ByteBuffer packet = ByteBuffer.allocateDirect(UdpTelemetry.PacketSize + 1).order(ByteOrder.LITTLE_ENDIAN);
+    try( DatagramChannel channel = DatagramChannel.open() )
+    {
+      channel.bind(new InetSocketAddress(port));
+      System.out.println( "UdpTelemetryReceiver listening on port " + port);
+      long next_report = System.nanoTime();
+      while( true )
+      {
+        packet.clear();
+        channel.receive(packet);
+        if( packet.position() != UdpTelemetry.PacketSize || packet.getInt(0) != UdpTelemetry.Magic
+            || packet.getInt(4) != UdpTelemetry.Version )
+        {
+          bad++;
+          continue;
+        }
+        Count(packet.getLong(8), packet.getLong(16));
+
+        long now = System.nanoTime();
+        if( now - next_report >= 0 )
+        {
+          Report(packet);
+          next_report = now + (long)(ReportPeriod * 1e9);
+        }
+      }
+    }
+  }
+
+
+  /*****************************************************************/
+  /* Count() - update the counts for a datagram's sequence number  */
+  /*           and time.                                           */
+  /*****************************************************************/
+  void Count( long sequence, long time )
+  {
+    received++;
+    if( expected < 0 )
+      expected = sequence;                       // first datagram
+    else if( Restarted(sequence, time) )
+    {
+      restarts++;
+      expected = 0;                              // the new run's datagrams before this one were dropped
+    }
+
+    if( sequence >= expected )
+    {
+      dropped += sequence - expected;
+      for( long s = Math.max(expected, sequence - MaxLate + 1); s < sequence; s++ )
+        missing[(int)(s % MaxLate)] = true;
+      missing[(int)(sequence % MaxLate)] = false;
+      expected = sequence + 1;
+      latest_time = time;
+    }
+    else if( expected - sequence <= MaxLate && missing[(int)(sequence % MaxLate)] )
+    {
+      missing[(int)(sequence % MaxLate)] = false;
+      out_of_order++;                            // came late, already counted as dropped
+      dropped--;
+    }
+    else
+      duplicates++;
+  }
+
+  /* The sequence went back while the time went on, or either went back too far to be late. */
+  private boolean Restarted( long sequence, long time )
+  {
+    if( latest_time - time > max_late_nanos )
+      return true;
+    return sequence < expected && (expected - sequence > MaxLate || time - latest_time > 0);
+  }
+
+
+  /*****************************************************************/
+  /* Report() - print the counts and the state in packet.          */
+  /*****************************************************************/
+  private void Report( ByteBuffer p )
+  {
+    System.out.printf("%d received, %d dropped, %d out of order, %d duplicate, %d bad, %d restarts | "
+                      + "seq %d %.3f s %s pressure %s %.2f V front %s rear %s gateway %s climb %b "
+                      + "drive %.2f turn %.2f intake %.2f winch %.2f at %.2f in%n",
+                      received, dropped, out_of_order, duplicates, bad, restarts, p.getLong(8), p.getLong(16) * 1e-9,
+                      Name(Phases, p.get(24)), Name(Pressure, p.get(25)), p.getFloat(32),
+                      Name(Cylinder, p.get(26)), Name(Cylinder, p.get(27)), Name(Cylinder, p.get(28)),
+                      p.get(29) != 0, p.getFloat(36), p.getFloat(40), p.getFloat(44), p.getFloat(48),
+                      p.getFloat(52));
+  }
+
+  private static String Name( Object[] names, int i )
+  {
+    return (i >= 0 && i < names.length) ? names[i].toString() : Integer.toString(i);
+  }
+}
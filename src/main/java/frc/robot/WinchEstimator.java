@@ -0,0 +1,117 @@
+/*-----------------------------------------------------------------------------*/
+/* Copyright (c) 2018 FIRST. All Rights Reserved.                              */
+/* Open Source Software - may be modified and shared by FRC teams. The code    */
+/* must be accompanied by the FIRST BSD license file in the root directory of  */
+/* the project.                                                                */
+/*                                                                             */
+/* Works out where the winch is from the speed it was commanded and how long */
+/* it ran at that speed, measured on the clock.  A late or early loop just    */
+/* means a longer or shorter step, so the estimate doesn't drift the way a    */
+/* count per loop does.  Command() also holds the winch between the soft      */
+/* limits when asked to: a speed that would drive past a limit is changed to */
+/* 0.  Without the limits the position keeps counting past them.  Nothing    */
+/* senses where the winch really is, so the estimate starts at min_position */
+/* and the driver resets it there once the winch is at the bottom.          */
+/* Crossed_Step() is true when the position moved into a new resolution      */
+/* step, so the dashboard is only told about real changes.                   */
+/*-----------------------------------------------------------------------------*/
+
+package frc.robot;
+
+public class WinchEstimator
+{
+  private double rate;                           // position change per second at speed 1.0
+  private double min_position;
+  private double max_position;
+  private final double resolution;
+
+  private double position;
+  private double speed = 0.0;                    // last speed command, runs until the next one
+  private long last_time;
+  private long step;                             // resolution step of the position
+  private boolean crossed = false;
+
+
+  public WinchEstimator( double rate, double min_position, double max_position, double resolution, long now )
+  {
+    if( resolution <= 0.0 )
+      throw new IllegalStateException("WinchEstimator: bad resolution");
+    this.resolution = resolution;
+    Configure(rate, min_position, max_position);
+    Reset(min_position, now);
+  }
+
+
+  /*****************************************************************/
+  /* Configure() - new rate and soft limits, e.g. once the winch   */
+  /*               has been measured.  The position is kept.       */
+  /*****************************************************************/
+  public void Configure( double rate, double min_position, double max_position )
+  {
+    if( !(min_position <= max_position) )
+      throw new IllegalStateException("WinchEstimator: bad limits");
+    this.rate = rate;
+    this.min_position = min_position;
+    this.max_position = max_position;
+  }
+
+
+  /*****************************************************************/
+  /* Command() - add the travel at the last speed since the last   */
+  /*             call, then take the new speed.  Returns the speed */
+  /*             to send to the motor, 0 at a soft limit when      */
+  /*             limit is true.                                    */
+  /*****************************************************************/
+  public double Command( double new_speed, boolean limit, long now )
+  {
+    position += speed * rate * (now - last_time) * 1e-9;
+    last_time = now;
+    if( limit )
+    {
+      if( position > max_position )
+        position = max_position;
+      else if( position < min_position )
+        position = min_position;
+
+      double travel = new_speed * rate;          // direction the new speed moves the position
+      if( (travel > 0.0 && position >= max_position) || (travel < 0.0 && position <= min_position) )
+        new_speed = 0.0;
+    }
+    speed = new_speed;
+
+    long new_step = (long)Math.floor(position / resolution);
+    crossed = (new_step != step);
+    step = new_step;
+    return new_speed;
+  }
+
+
+  /*****************************************************************/
+  /* Reset() - the winch is at position now and stopped.           */
+  /*****************************************************************/
+  public void Reset( double new_position, long now )
+  {
+    position = new_position;
+    speed = 0.0;
+    last_time = now;
+    step = Long.MIN_VALUE;                       // the next Command() publishes the new position
+    crossed = false;
+  }
+
+
+  public double Get_Position()
+  {
+    return position;
+  }
+
+  /* Position rounded down to the resolution step, for the dashboard. */
+  public double Get_Step_Position()
+  {
+    return step * resolution;
+  }
+
+  public boolean Crossed_Step()
+  {
+    return crossed;
+  }
+}
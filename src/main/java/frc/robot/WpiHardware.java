@@ -0,0 +1,164 @@
+/*-----------------------------------------------------------------------------*/
+/* Copyright (c) 2018 FIRST. All Rights Reserved.                              */
+/* Open Source Software - may be modified and shared by FRC teams. The code    */
+/* must be accompanied by the FIRST BSD license file in the root directory of  */
+/* the project.                                                                */
+/*                                                                             */
+/* RobotHardware on the roboRIO: thin wrappers around the wpilib devices.     */
+/*-----------------------------------------------------------------------------*/
+
+package frc.robot;
+import edu.wpi.first.wpilibj.AnalogInput;
+import edu.wpi.first.wpilibj.Compressor;
+import edu.wpi.first.wpilibj.DoubleSolenoid;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Joystick;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Solenoid;
+import edu.wpi.first.wpilibj.Spark;
+import edu.wpi.first.wpilibj.SpeedController;
+import edu.wpi.first.wpilibj.SpeedControllerGroup;
+import edu.wpi.first.wpilibj.drive.DifferentialDrive;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.cameraserver.CameraServer;
+import edu.wpi.cscore.CameraServerJNI;
+import edu.wpi.cscore.MjpegServer;
+import edu.wpi.cscore.UsbCamera;
+import java.util.ArrayList;
+
+public class WpiHardware implements RobotHardware
+{
+  private final ArrayList<Notifier> notifiers = new ArrayList<>();   // keep them from being collected
+
+  private static final class WpiMotor implements Motor
+  {
+    final SpeedController controller;
+
+    WpiMotor( SpeedController controller )
+    {
+      this.controller = controller;
+    }
+
+    public void set( double speed )
+    {
+      controller.set(speed);
+    }
+  }
+
+  public Motor Spark( int... channels )
+  {
+    if( channels.length == 1 )
+      return new WpiMotor(new Spark(channels[0]));
+    SpeedController[] rest = new SpeedController[channels.length - 1];
+    for( int i = 1; i < channels.length; i++ )
+      rest[i - 1] = new Spark(channels[i]);
+    return new WpiMotor(new SpeedControllerGroup(new Spark(channels[0]), rest));
+  }
+
+  public Valve Solenoid( int channel )
+  {
+    Solenoid s = new Solenoid(channel);
+    return s::set;
+  }
+
+  public DoubleValve DoubleSolenoid( int forward_channel, int reverse_channel )
+  {
+    DoubleSolenoid s = new DoubleSolenoid(forward_channel, reverse_channel);
+    return forward -> s.set(forward ? DoubleSolenoid.Value.kForward : DoubleSolenoid.Value.kReverse);
+  }
+
+  public AirCompressor Compressor( int module )
+  {
+    Compressor c = new Compressor(module);
+    return c::setClosedLoopControl;
+  }
+
+  public AnalogSensor AnalogInput( int channel )
+  {
+    AnalogInput a = new AnalogInput(channel);
+    return a::getVoltage;
+  }
+
+  public Stick Joystick( int port )
+  {
+    new Joystick(port);                          // reports the joystick to the HAL
+    DriverStation ds = DriverStation.getInstance();
+    return new Stick()
+    {
+      public int getButtons()
+      {
+        return ds.getStickButtons(port);         // all buttons in one call
+      }
+
+      public int getAxisCount()
+      {
+        return ds.getStickAxisCount(port);
+      }
+
+      public double getRawAxis( int axis )
+      {
+        return ds.getStickAxis(port, axis);
+      }
+    };
+  }
+
+  public Drive DifferentialDrive( Motor left, Motor right )
+  {
+    DifferentialDrive drive = new DifferentialDrive(((WpiMotor)left).controller, ((WpiMotor)right).controller);
+    return drive::arcadeDrive;
+  }
+
+  public Dashboard Dashboard()
+  {
+    return new Dashboard()
+    {
+      public void putNumber( String key, double value )
+      {
+        SmartDashboard.putNumber(key, value);
+      }
+
+      public void putBoolean( String key, boolean value )
+      {
+        SmartDashboard.putBoolean(key, value);
+      }
+
+      public void putString( String key, String value )
+      {
+        SmartDashboard.putString(key, value);
+      }
+    };
+  }
+
+  public Camera Camera( int device )
+  {
+    CameraServerJNI.setTelemetryPeriod(1.0);     // needed for getActualDataRate()
+    UsbCamera camera = new UsbCamera("USB Camera " + device, device);
+    MjpegServer server = CameraServer.getInstance().startAutomaticCapture(camera);
+    return new Camera()
+    {
+      public void setMode( int width, int height, int fps, int quality )
+      {
+        camera.setResolution(width, height);
+        camera.setFPS(fps);
+        server.setCompression(quality);
+      }
+
+      public double getDataRate()
+      {
+        return camera.getActualDataRate();
+      }
+    };
+  }
+
+  public long nanoTime()
+  {
+    return System.nanoTime();
+  }
+
+  public void StartPeriodic( Runnable task, double period )
+  {
+    Notifier n = new Notifier(task);
+    n.startPeriodic(period);
+    notifiers.add(n);
+  }
+}
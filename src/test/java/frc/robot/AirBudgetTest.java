@@ -0,0 +1,186 @@
+/*-----------------------------------------------------------------------------*/
+/* Copyright (c) 2018 FIRST. All Rights Reserved.                              */
+/* Open Source Software - may be modified and shared by FRC teams. The code    */
+/* must be accompanied by the FIRST BSD license file in the root directory of  */
+/* the project.                                                                */
+/*                                                                             */
+/* AirBudget on a simulated tank, one pressure reading per loop: pending air */
+/* of overlapping strokes, the refill rate, Can_Actuate() before the first   */
+/* reading, and the stroke time learned from the pressure drop.             */
+/*-----------------------------------------------------------------------------*/
+
+package frc.robot;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class AirBudgetTest
+{
+  static final long Loop = 20000000;             // nanoseconds between readings
+  static final double MinVolts = 1.5;
+  static final double Tolerance = 1e-9;
+  static final int Front = 0;
+  static final int Rear = 1;
+  static final double Guess = 1.0;               // CylinderActuationTime
+  static final double Tank = 3.0;                // volts before each simulated stroke
+  static final double Drop = 1.0;                // volts a simulated stroke uses
+  static final double TimeTolerance = 0.06;      // the fall is seen in DropNoise steps
+
+  private final AirBudget air = new AirBudget(new Telemetry(new FakeHardware().Dashboard()), MinVolts);
+  private long now = 0;
+
+
+  public AirBudgetTest()
+  {
+    air.Set_Cylinder(Front, "Front", 0.3, 0.2);
+    air.Set_Cylinder(Rear, "Rear", 0.4, 0.3);
+  }
+
+  /* Readings every loop for seconds, rising at rate volts/sec. from volts. */
+  private double Run( double volts, double rate, double seconds )
+  {
+    for( long end = now + (long)(seconds * 1e9); now < end; now += Loop )
+    {
+      air.Update(volts, now);
+      volts += rate * Loop * 1e-9;
+    }
+    return volts;
+  }
+
+  /* A stroke of id, or of both cylinders at once when overlap, that  */
+  /* takes seconds: the reading falls Drop over that time, then stays */
+  /* until well after the longest actuation time.  The tank is full   */
+  /* again before the next one.                                       */
+  private void Stroke( int id, boolean overlap, double seconds )
+  {
+    Run(Tank, 0.0, 0.5);
+    long start = now;
+    air.Actuated(id, true, Guess, now);
+    if( overlap )
+      air.Actuated(Rear, true, Guess, now);
+    for( long end = now + (long)((Guess * air.MaxTimeScale + 1.0) * 1e9); now < end; now += Loop )
+      air.Update(Tank - Drop * Math.min(1.0, (now - start) * 1e-9 / seconds), now);
+  }
+
+  /* The actuation time for a stroke that takes seconds. */
+  private double Learned( double seconds )
+  {
+    return seconds * air.TimeMargin + air.TimeMarginSeconds;
+  }
+
+
+  @Test
+  public void No_Air_Before_The_First_Reading()
+  {
+    assertFalse(air.Can_Actuate(Front, true, 0.0));
+    assertFalse(air.Can_Actuate(Rear, false, 1.0));
+    air.Update(2.5, now);
+    assertTrue(air.Can_Actuate(Front, true, 0.0));
+  }
+
+  @Test
+  public void Overlapping_Strokes_Are_Both_Pending()
+  {
+    Run(2.5, 0.0, 1.0);
+    air.Actuated(Front, true, 1.0, now);                 // pending for the guess plus SettleTime
+    long front_end = now + 1250000000L;
+    Run(2.5, 0.0, 0.1);
+    air.Actuated(Rear, true, 1.0, now);
+    long rear_end = now + 1250000000L;
+    assertEquals(0.7, air.Get_Pending(), Tolerance);
+    assertFalse(air.Can_Actuate(Rear, true, 0.0));       // 2.5 - 0.7 - 0.4 = 1.4
+    assertTrue(air.Can_Actuate(Front, false, 0.0));      // 2.5 - 0.7 - 0.2 = 1.6
+
+    air.Update(2.5, front_end - Loop);
+    assertEquals(0.7, air.Get_Pending(), Tolerance);
+    air.Update(2.5, front_end);                          // front leaves by itself
+    assertEquals(0.4, air.Get_Pending(), Tolerance);
+    air.Update(2.5, rear_end - Loop);
+    assertEquals(0.4, air.Get_Pending(), Tolerance);
+    air.Update(2.5, rear_end);
+    assertEquals(0.0, air.Get_Pending(), Tolerance);
+  }
+
+  @Test
+  public void Overlapping_Strokes_Are_Not_Learned()
+  {
+    double volts = Run(2.5, 0.0, 1.0);
+    air.Actuated(Front, true, 1.0, now);
+    air.Actuated(Rear, true, 1.0, now);
+    Run(volts - 1.0, 0.0, 2.0);                          // dropped far more than either guess
+    assertEquals(0.3, air.Get_Use(Front, true), Tolerance);
+    assertEquals(0.4, air.Get_Use(Rear, true), Tolerance);
+
+    volts = Run(2.5, 0.0, 10.0);                         // refill rate back to 0 after the jump
+    air.Actuated(Front, true, 1.0, now);
+    Run(volts - 0.5, 0.0, 2.0);                          // alone, it is learned
+    assertEquals(0.3 + (0.5 - 0.3) * air.UseFilter, air.Get_Use(Front, true), 1e-3);
+  }
+
+  @Test
+  public void Refill_Rate_Falls_When_The_Compressor_Stops()
+  {
+    double volts = Run(1.0, 0.5, 10.0);                  // compressor running
+    assertEquals(0.5, air.Get_Refill_Rate(), 1e-3);
+    volts = Run(volts, 0.0, 10.0);                       // full, compressor off
+    assertEquals(0.0, air.Get_Refill_Rate(), 1e-3);
+    Run(volts, 0.5, 10.0);
+    Run(volts, -0.05, 10.0);                             // leaking
+    assertEquals(0.0, air.Get_Refill_Rate(), 0.0);
+  }
+
+  @Test
+  public void Guess_Is_Kept_Until_MinStrokes()
+  {
+    for( int i = 1; i < air.MinStrokes; i++ )
+    {
+      Stroke(Front, false, 0.5);
+      assertEquals(Guess, air.Actuation_Time(Front, true, Guess), 0.0);
+    }
+    Stroke(Front, false, 0.5);
+    assertEquals(Learned(0.5), air.Actuation_Time(Front, true, Guess), TimeTolerance);
+    assertEquals(Guess, air.Actuation_Time(Front, false, Guess), 0.0);   // retract not timed
+  }
+
+  @Test
+  public void Learned_Time_Is_Clamped_To_The_Guess()
+  {
+    for( int i = 0; i < 5; i++ )
+      Stroke(Front, false, 0.1);
+    assertEquals(Guess * air.MinTimeScale, air.Actuation_Time(Front, true, Guess), 0.0);
+    for( int i = 0; i < 40; i++ )                // grows a little each stroke, as it is measured over less
+      Stroke(Front, false, 3.0);
+    assertEquals(Guess * air.MaxTimeScale, air.Actuation_Time(Front, true, Guess), 0.0);
+  }
+
+  @Test
+  public void Short_Learned_Time_Grows_Back()
+  {
+    for( int i = 0; i < 5; i++ )
+      Stroke(Front, false, 0.5);
+    assertEquals(Learned(0.5), air.Actuation_Time(Front, true, Guess), TimeTolerance);
+    Stroke(Front, false, 1.5);                   // the cylinder got slower, seen over the whole guess
+    double seen = 0.5 + (Guess + air.SettleTime - 0.5) * air.TimeFilter;
+    assertEquals(Learned(seen), air.Actuation_Time(Front, true, Guess), TimeTolerance);
+    for( int i = 0; i < 40; i++ )
+      Stroke(Front, false, 1.5);
+    assertEquals(Learned(1.5), air.Actuation_Time(Front, true, Guess), TimeTolerance);
+  }
+
+  @Test
+  public void Overlapping_Strokes_Teach_No_Time()
+  {
+    for( int i = 0; i < 5; i++ )
+      Stroke(Front, true, 0.5);
+    assertEquals(Guess, air.Actuation_Time(Front, true, Guess), 0.0);
+
+    for( int i = 0; i < air.MinStrokes; i++ )
+      Stroke(Front, false, 0.5);
+    double learned = air.Actuation_Time(Front, true, Guess);
+    for( int i = 0; i < 5; i++ )
+      Stroke(Front, true, 1.5);
+    assertEquals(learned, air.Actuation_Time(Front, true, Guess), 0.0);
+  }
+}
@@ -0,0 +1,110 @@
+/*-----------------------------------------------------------------------------*/
+/* Copyright (c) 2018 FIRST. All Rights Reserved.                              */
+/* Open Source Software - may be modified and shared by FRC teams. The code    */
+/* must be accompanied by the FIRST BSD license file in the root directory of  */
+/* the project.                                                                */
+/*                                                                             */
+/* Fails the build when a control loop path starts allocating.  Garbage on    */
+/* the loop means GC pauses on the roboRIO, and GC pauses mean the drive      */
+/* stutters.  Each path is its own test, so the report names the one that    */
+/* allocates: Warmup cycles on FakeHardware so the JIT has compiled it, then  */
+/* Cycles more that must allocate nothing on this thread.                    */
+/*-----------------------------------------------------------------------------*/
+
+package frc.robot;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class AllocationGateTest
+{
+  static final int Warmup = 50000;
+  static final int Cycles = 20000;
+
+  private final FakeLoop loop = new FakeLoop();
+  private final RobotCore core = loop.core;
+
+
+  /* Bytes the path allocates must be 0. */
+  private void Check( String path, Runnable cycle )
+  {
+    long bytes = FakeLoop.Allocated(cycle, Warmup, Cycles);
+    assertEquals(path + " allocated " + (double)bytes / Cycles + " bytes per cycle", 0, bytes);
+  }
+
+
+  @Test
+  public void Teleop_Periodic()
+  {
+    core.teleopInit();
+    Check("teleopPeriodic", () -> { loop.Next_Loop(); core.teleopPeriodic(); core.robotPeriodic(); });
+  }
+
+  @Test
+  public void Cylinder_Controls()
+  {
+    core.teleopInit();
+    Check("Cylinder_Controls", () -> { loop.Next_Inputs(); core.lifts.Cylinder_Controls(); });
+  }
+
+  @Test
+  public void Drive_Controls()
+  {
+    core.teleopInit();
+    Check("Drive_Controls", () -> { loop.Next_Inputs(); core.Drive_Controls(); });
+  }
+
+  @Test
+  public void Winch_Controls()
+  {
+    core.teleopInit();
+    Check("Winch_Controls", () -> { loop.Next_Inputs(); core.Winch_Controls(); });
+  }
+
+  @Test
+  public void BallInTake_Controls()
+  {
+    core.teleopInit();
+    Check("BallInTake_Controls", () -> { loop.Next_Inputs(); core.BallInTake_Controls(); });
+  }
+
+  @Test
+  public void Check_System_Status()
+  {
+    Check("Check_System_Status", () ->
+    {
+      if( core.sysstat.Time_To_Climb() )
+        core.sysstat.StartGameClock();           // keep the match clock running
+      loop.Next_Time();
+      core.sysstat.Check_System_Status();
+    });
+  }
+
+  @Test
+  public void Telemetry_Flush()
+  {
+    core.teleopInit();
+    Check("Telemetry.Flush", () -> { loop.Next_Loop(); core.telemetry.Flush(loop.hw.nanoTime()); });
+  }
+
+  @Test
+  public void Test_Periodic()
+  {
+    core.testInit();
+    Check("testPeriodic", () -> { loop.Next_Loop(); core.testPeriodic(); core.robotPeriodic(); });
+  }
+
+  @Test
+  public void Autonomous_Periodic()
+  {
+    core.autonomousInit();
+    Check("autonomousPeriodic", () -> { loop.Next_Loop(); core.autonomousPeriodic(); core.robotPeriodic(); });
+  }
+
+  @Test
+  public void Disabled_Periodic()
+  {
+    core.disabledInit();
+    Check("disabledPeriodic", () -> { loop.Next_Loop(); core.disabledPeriodic(); core.robotPeriodic(); });
+  }
+}
@@ -0,0 +1,125 @@
+/*-----------------------------------------------------------------------------*/
+/* Copyright (c) 2018 FIRST. All Rights Reserved.                              */
+/* Open Source Software - may be modified and shared by FRC teams. The code    */
+/* must be accompanied by the FIRST BSD license file in the root directory of  */
+/* the project.                                                                */
+/*                                                                             */
+/* CameraGovernor levels on FakeCameras: a step down when the loop or the    */
+/* streams are over their limits, a step back up when both have headroom,   */
+/* and the best level only on the camera the driver is using.               */
+/*-----------------------------------------------------------------------------*/
+
+package frc.robot;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class CameraGovernorTest
+{
+  static final double Budget = RobotCore.LoopPeriod;
+  static final long BudgetNanos = (long)(Budget * 1e9);
+  static final long TaskNanos = 200000000;       // Camera_Task period
+  static final long Light = BudgetNanos / 5;     // loop using 20% of its budget
+  static final long Busy = BudgetNanos * 9 / 10;
+  static final double Quiet = 0.01;              // scene that keeps every level under the bandwidth cap
+
+  private final FakeHardware.FakeCamera[] fakes = { new FakeHardware.FakeCamera(), new FakeHardware.FakeCamera() };
+  private final CameraGovernor governor = new CameraGovernor(fakes, Budget);
+  private long now = 0;
+
+
+  /* Start the governor with both cameras in the given scene. */
+  private void Start( double scene )
+  {
+    for( FakeHardware.FakeCamera c : fakes )
+      c.scene = scene;
+    governor.Update(now, Light);
+  }
+
+  /* One EvaluatePeriod of Camera_Task calls, each with loop_nanos. */
+  private void Run_Period( long loop_nanos )
+  {
+    for( int i = 0; i < 5; i++ )
+    {
+      now += TaskNanos;
+      governor.Update(now, loop_nanos);
+    }
+  }
+
+
+  @Test
+  public void Active_Camera_Gets_The_Best_Level()
+  {
+    Start(Quiet);
+    assertEquals(0, governor.Get_Level(0));
+    assertEquals(governor.ThumbnailLevel, governor.Get_Level(1));
+    assertEquals(640, fakes[0].width);
+    assertEquals(160, fakes[1].width);
+
+    governor.Set_Active(1);
+    assertEquals(governor.ThumbnailLevel, governor.Get_Level(0));
+    assertEquals(0, governor.Get_Level(1));
+    assertEquals(160, fakes[0].width);
+    assertEquals(640, fakes[1].width);
+
+    Run_Period(Light);
+    assertEquals(0, governor.Get_Level(1));
+    assertEquals(governor.ThumbnailLevel, governor.Get_Level(0));
+  }
+
+  @Test
+  public void Steps_Down_When_The_Loop_Is_Busy()
+  {
+    Start(Quiet);
+    Run_Period(Busy);
+    assertEquals(1, governor.Get_Level(0));
+    assertEquals(governor.ThumbnailLevel + 1, governor.Get_Level(1));
+    Run_Period(Busy);
+    assertEquals(2, governor.Get_Level(0));
+    assertEquals(CameraGovernor.LevelCount - 1, governor.Get_Level(1));
+  }
+
+  @Test
+  public void Steps_Down_When_Over_The_Bandwidth_Cap()
+  {
+    Start(1.0);
+    Run_Period(Light);
+    assertEquals(1, governor.Get_Level(0));
+    Run_Period(Light);
+    assertEquals(2, governor.Get_Level(0));
+    assertEquals(CameraGovernor.LevelCount - 1, governor.Get_Level(1));
+  }
+
+  @Test
+  public void Steps_Up_With_Headroom()
+  {
+    Start(Quiet);
+    Run_Period(Busy);
+    Run_Period(Busy);
+    assertEquals(2, governor.Get_Level(0));
+    Run_Period(Light);
+    assertEquals(1, governor.Get_Level(0));
+    Run_Period(Light);
+    assertEquals(0, governor.Get_Level(0));
+    assertEquals(governor.ThumbnailLevel, governor.Get_Level(1));
+    Run_Period(Light);
+    assertEquals(0, governor.Get_Level(0));
+  }
+
+  @Test
+  public void Uses_The_Loop_Average_Over_The_Period()
+  {
+    Start(Quiet);
+    for( int i = 0; i < 4; i++ )                 // one slow loop average among light ones
+    {
+      now += TaskNanos;
+      governor.Update(now, i == 0 ? 2 * BudgetNanos : Light);
+    }
+    now += TaskNanos;
+    governor.Update(now, Light);
+    assertEquals(0, governor.Get_Level(0));
+
+    Run_Period(Busy);
+    assertEquals(1, governor.Get_Level(0));
+  }
+}
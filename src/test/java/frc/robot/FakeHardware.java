@@ -0,0 +1,284 @@
+/*-----------------------------------------------------------------------------*/
+/* Copyright (c) 2018 FIRST. All Rights Reserved.                              */
+/* Open Source Software - may be modified and shared by FRC teams. The code    */
+/* must be accompanied by the FIRST BSD license file in the root directory of  */
+/* the project.                                                                */
+/*                                                                             */
+/* RobotHardware made of plain Java objects, for running the control loop on  */
+/* a desktop.  Outputs remember the last value written and inputs return      */
+/* whatever the caller sets, by channel / port number.  Time only moves when */
+/* Advance() is called, so a loop can run as fast as the CPU allows while the */
+/* robot code still sees the loop period between loops.  Periodic tasks run */
+/* inside Advance(), on the caller's thread, at the fake times they are due. */
+/* Nothing here allocates after the devices are made.                        */
+/*-----------------------------------------------------------------------------*/
+
+package frc.robot;
+import java.util.HashMap;
+
+public class FakeHardware implements RobotHardware
+{
+  public static final class FakeMotor implements Motor
+  {
+    public double speed;
+
+    public void set( double speed )
+    {
+      this.speed = speed;
+    }
+  }
+
+  public static final class FakeValve implements Valve
+  {
+    public boolean on;
+
+    public void set( boolean on )
+    {
+      this.on = on;
+    }
+  }
+
+  public static final class FakeDoubleValve implements DoubleValve
+  {
+    public boolean forward;
+
+    public void set( boolean forward )
+    {
+      this.forward = forward;
+    }
+  }
+
+  public static final class FakeCompressor implements AirCompressor
+  {
+    public boolean closed_loop;
+
+    public void setClosedLoopControl( boolean on )
+    {
+      closed_loop = on;
+    }
+  }
+
+  public static final class FakeAnalog implements AnalogSensor
+  {
+    public double volts;
+
+    public double getVoltage()
+    {
+      return volts;
+    }
+  }
+
+  public static final class FakeStick implements Stick
+  {
+    public int buttons;
+    public final double[] axes = new double[HidSnapshot.MaxAxes];
+
+    public int getButtons()
+    {
+      return buttons;
+    }
+
+    public int getAxisCount()
+    {
+      return axes.length;
+    }
+
+    public double getRawAxis( int axis )
+    {
+      return axes[axis];
+    }
+
+    public void setButton( int button, boolean pressed )
+    {
+      if( pressed )
+        buttons |= 1 << (button - 1);
+      else
+        buttons &= ~(1 << (button - 1));
+    }
+  }
+
+  public static final class FakeDrive implements Drive
+  {
+    public double speed;
+    public double rotation;
+
+    public void arcadeDrive( double speed, double rotation )
+    {
+      this.speed = speed;
+      this.rotation = rotation;
+    }
+  }
+
+  /* Synthetic frame source: the data rate is worked out from the mode */
+  /* and a JPEG size model, times scene (1.0 = typical field view).     */
+  public static final class FakeCamera implements Camera
+  {
+    public int width;
+    public int height;
+    public int fps;
+    public int quality;
+    public double scene = 1.0;
+    public int mode_changes = 0;
+
+    public void setMode( int width, int height, int fps, int quality )
+    {
+      this.width = width;
+      this.height = height;
+      this.fps = fps;
+      this.quality = quality;
+      mode_changes++;
+    }
+
+    public double getDataRate()
+    {
+      double bytes_per_pixel = 0.05 + 0.25 * quality / 100.0;   // rough MJPEG frame size
+      return width * height * bytes_per_pixel * fps * scene;
+    }
+  }
+
+  /* Keeps the last value of each key.  Boxes are made once per key. */
+  public static final class FakeDashboard implements Dashboard
+  {
+    public final HashMap<String, double[]> numbers = new HashMap<>();
+    public final HashMap<String, boolean[]> booleans = new HashMap<>();
+    public final HashMap<String, String> strings = new HashMap<>();
+    public long writes = 0;
+
+    public void putNumber( String key, double value )
+    {
+      numbers.computeIfAbsent(key, k -> new double[1])[0] = value;
+      writes++;
+    }
+
+    public void putBoolean( String key, boolean value )
+    {
+      booleans.computeIfAbsent(key, k -> new boolean[1])[0] = value;
+      writes++;
+    }
+
+    public void putString( String key, String value )
+    {
+      strings.put(key, value);
+      writes++;
+    }
+
+    public double getNumber( String key )
+    {
+      double[] v = numbers.get(key);
+      return v == null ? 0.0 : v[0];
+    }
+
+    public boolean getBoolean( String key )
+    {
+      boolean[] v = booleans.get(key);
+      return v != null && v[0];
+    }
+  }
+
+  // Devices by channel / port, so a harness can drive inputs and check outputs
+  public final FakeMotor[] pwm = new FakeMotor[10];
+  public final FakeValve[] solenoids = new FakeValve[8];
+  public final FakeDoubleValve[] double_solenoids = new FakeDoubleValve[8];   // by forward channel
+  public final FakeCompressor compressor = new FakeCompressor();
+  public final FakeAnalog[] analog = new FakeAnalog[8];
+  public final FakeStick[] sticks = new FakeStick[6];
+  public final FakeDashboard dashboard = new FakeDashboard();
+  public final FakeCamera[] cameras = new FakeCamera[4];
+  public FakeDrive drive;
+
+  private long now_nanos = 0;
+
+  // Periodic tasks, run by Advance()
+  static final int MaxTasks = 8;
+  private final Runnable[] tasks = new Runnable[MaxTasks];
+  private final long[] task_period = new long[MaxTasks];
+  private final long[] task_due = new long[MaxTasks];
+  private int task_count = 0;
+
+
+  public Motor Spark( int... channels )
+  {
+    FakeMotor m = new FakeMotor();
+    for( int channel : channels )
+      pwm[channel] = m;
+    return m;
+  }
+
+  public Valve Solenoid( int channel )
+  {
+    return solenoids[channel] = new FakeValve();
+  }
+
+  public DoubleValve DoubleSolenoid( int forward_channel, int reverse_channel )
+  {
+    return double_solenoids[forward_channel] = new FakeDoubleValve();
+  }
+
+  public AirCompressor Compressor( int module )
+  {
+    return compressor;
+  }
+
+  public AnalogSensor AnalogInput( int channel )
+  {
+    return analog[channel] = new FakeAnalog();
+  }
+
+  public Stick Joystick( int port )
+  {
+    return sticks[port] = new FakeStick();
+  }
+
+  public Drive DifferentialDrive( Motor left, Motor right )
+  {
+    return drive = new FakeDrive();
+  }
+
+  public Dashboard Dashboard()
+  {
+    return dashboard;
+  }
+
+  public Camera Camera( int device )
+  {
+    return cameras[device] = new FakeCamera();
+  }
+
+  public long nanoTime()
+  {
+    return now_nanos;
+  }
+
+  public void StartPeriodic( Runnable task, double period )
+  {
+    if( task_count >= MaxTasks )
+      throw new IllegalStateException("FakeHardware: too many periodic tasks");
+    tasks[task_count] = task;
+    task_period[task_count] = (long)(period * 1e9);
+    task_due[task_count] = now_nanos + task_period[task_count];
+    task_count++;
+  }
+
+
+  /*****************************************************************/
+  /* Advance() - move the fake clock forward, running each         */
+  /*             periodic task at every time it comes due.         */
+  /*****************************************************************/
+  public void Advance( double seconds )
+  {
+    long target = now_nanos + (long)(seconds * 1e9);
+    while( true )
+    {
+      int next = -1;
+      for( int i = 0; i < task_count; i++ )
+        if( task_due[i] <= target && (next < 0 || task_due[i] < task_due[next]) )
+          next = i;
+      if( next < 0 )
+        break;
+      now_nanos = task_due[next];
+      task_due[next] += task_period[next];
+      tasks[next].run();
+    }
+    now_nanos = target;
+  }
+}
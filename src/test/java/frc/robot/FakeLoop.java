@@ -0,0 +1,84 @@
+/*-----------------------------------------------------------------------------*/
+/* Copyright (c) 2018 FIRST. All Rights Reserved.                              */
+/* Open Source Software - may be modified and shared by FRC teams. The code    */
+/* must be accompanied by the FIRST BSD license file in the root directory of  */
+/* the project.                                                                */
+/*                                                                             */
+/* A RobotCore on FakeHardware for tests and benchmarks, with the steps that */
+/* drive it one loop at a time.  The joysticks move in the HeadlessLoop      */
+/* pattern.  Allocated() counts the bytes a cycle allocates on this thread   */
+/* after warming it up, so tests can check a loop path makes no garbage.     */
+/* The JIT now and then allocates a few bytes on the thread it compiles for, */
+/* so the count is the least of Rounds runs: garbage made by the path itself */
+/* shows up in every one.                                                    */
+/*-----------------------------------------------------------------------------*/
+
+package frc.robot;
+import java.lang.management.ManagementFactory;
+
+final class FakeLoop
+{
+  static final int Rounds = 3;
+
+  private static final com.sun.management.ThreadMXBean threads =
+    (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+
+  final FakeHardware hw = new FakeHardware();
+  final RobotCore core = new RobotCore(hw);
+  private long loop = 0;
+
+
+  FakeLoop()
+  {
+    core.robotInit();
+    core.sysstat.StartGameClock();
+  }
+
+
+  /* Move the sticks and the clock one loop. */
+  void Next_Loop()
+  {
+    HeadlessLoop.Move_Sticks(hw, loop++);
+    hw.Advance(RobotCore.LoopPeriod);
+  }
+
+  /* Next_Loop() and the input snapshot the controllers read. */
+  void Next_Inputs()
+  {
+    Next_Loop();
+    long now = hw.nanoTime();
+    core.LeftInput.Capture(hw.sticks[0], now);
+    core.RightInput.Capture(hw.sticks[1], now);
+    core.Buttons.Update(core.LeftInput.getButtons(), core.RightInput.getButtons());
+    core.timers.Advance(now);
+  }
+
+  /* Only the clock and the timers. */
+  void Next_Time()
+  {
+    hw.Advance(RobotCore.LoopPeriod);
+    core.timers.Advance(hw.nanoTime());
+  }
+
+
+  /*****************************************************************/
+  /* Allocated() - run cycle warmup times so the JIT has compiled  */
+  /*               it, then the least bytes allocated by cycles    */
+  /*               more runs in any of Rounds rounds.              */
+  /*****************************************************************/
+  static long Allocated( Runnable cycle, int warmup, int cycles )
+  {
+    for( int i = 0; i < warmup; i++ )
+      cycle.run();
+    long id = Thread.currentThread().getId();
+    long least = Long.MAX_VALUE;
+    for( int round = 0; round < Rounds; round++ )
+    {
+      long before = threads.getThreadAllocatedBytes(id);
+      for( int i = 0; i < cycles; i++ )
+        cycle.run();
+      least = Math.min(least, threads.getThreadAllocatedBytes(id) - before);
+    }
+    return least;
+  }
+}
@@ -0,0 +1,72 @@
+/*-----------------------------------------------------------------------------*/
+/* Copyright (c) 2018 FIRST. All Rights Reserved.                              */
+/* Open Source Software - may be modified and shared by FRC teams. The code    */
+/* must be accompanied by the FIRST BSD license file in the root directory of  */
+/* the project.                                                                */
+/*                                                                             */
+/* Runs the full robot loop on a desktop with FakeHardware, as fast as the    */
+/* CPU allows.  The joysticks move in a fixed pattern and the tank pressure   */
+/* is high, so the drive, winch, intake and all cylinders are exercised.      */
+/* Good for attaching a profiler:                                            */
+/*     ./gradlew runHeadless -Ploops=1000000                                  */
+/* Give a host to stream UdpTelemetry to it, e.g. to UdpTelemetryReceiver:   */
+/*     ./gradlew runHeadless -Ptelemetry=127.0.0.1                            */
+/*-----------------------------------------------------------------------------*/
+
+package frc.robot;
+import java.net.InetSocketAddress;
+
+public final class HeadlessLoop
+{
+  private HeadlessLoop()
+  {
+  }
+
+  public static void main( String... args )
+  {
+    long loops = args.length > 0 ? Long.parseLong(args[0]) : 100000;
+
+    FakeHardware hw = new FakeHardware();
+    RobotCore core = new RobotCore(hw);
+    core.robotInit();
+    if( args.length > 1 )
+      core.Start_Udp_Telemetry(new InetSocketAddress(args[1], 5800));
+    core.teleopInit();
+
+    long start = System.nanoTime();
+    for( long i = 0; i < loops; i++ )
+    {
+      Move_Sticks(hw, i);
+      core.teleopPeriodic();
+      core.robotPeriodic();
+      hw.Advance(RobotCore.LoopPeriod);
+    }
+    double seconds = (System.nanoTime() - start) * 1e-9;
+
+    System.out.printf("%d loops in %.3f s, %.0f loops/s, %d dashboard writes%n",
+                      loops, seconds, loops / seconds, hw.dashboard.writes);
+    core.disabledInit();                         // prints the loop timing
+  }
+
+
+  /*****************************************************************/
+  /* Move_Sticks() - joystick and pressure pattern for loop i.     */
+  /*****************************************************************/
+  static void Move_Sticks( FakeHardware hw, long i )
+  {
+    FakeHardware.FakeStick left = hw.sticks[0];
+    FakeHardware.FakeStick right = hw.sticks[1];
+    double phase = (i % 500) / 500.0 * 2.0 * Math.PI;
+
+    hw.analog[0].volts = 2.5;                    // tanks full
+    right.axes[0] = Math.sin(phase);
+    right.axes[1] = Math.cos(phase);
+    right.setButton(1, (i / 250) % 2 == 0);      // turbo on and off
+    left.axes[1] = Math.sin(phase * 2);
+    left.setButton(1, (i / 100) % 2 == 0);       // ball gateway
+    left.setButton(2, (i / 300) % 3 == 1);       // winch down
+    left.setButton(3, (i / 300) % 3 == 0);       // winch up
+    left.setButton(4, (i / 150) % 2 == 0);       // front lift
+    left.setButton(5, (i / 200) % 2 == 0);       // rear lift
+  }
+}
@@ -0,0 +1,88 @@
+/*-----------------------------------------------------------------------------*/
+/* Copyright (c) 2018 FIRST. All Rights Reserved.                              */
+/* Open Source Software - may be modified and shared by FRC teams. The code    */
+/* must be accompanied by the FIRST BSD license file in the root directory of  */
+/* the project.                                                                */
+/*                                                                             */
+/* InputShaper values, and that shaping the drive and intake axes in the     */
+/* steady state loop allocates nothing.                                       */
+/*-----------------------------------------------------------------------------*/
+
+package frc.robot;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class InputShaperTest
+{
+  static final int Warmup = 50000;
+  static final int Cycles = 20000;
+  static final double Tolerance = 1e-6;
+
+  private final InputShaper linear = new InputShaper(0.1, 0.5, 1.0, InputCurve.Linear);
+  private final InputShaper square = new InputShaper(0.1, 0.8, 1.0, InputCurve.Square);
+
+
+  @Test
+  public void Deadband_Zeroes_Small_Values()
+  {
+    assertEquals(0.0, InputShaper.Deadband(0.05, 0.1), 0.0);
+    assertEquals(0.0, InputShaper.Deadband(-0.05, 0.1), 0.0);
+    assertEquals(0.1, InputShaper.Deadband(0.1, 0.1), 0.0);
+    assertEquals(-0.3, InputShaper.Deadband(-0.3, 0.1), 0.0);
+  }
+
+  @Test
+  public void Deadband_Applies_After_Scale()
+  {
+    assertEquals(0.0, linear.Shape(0.15, false), 0.0);      // 0.075 scaled, inside the band
+    assertEquals(0.15, linear.Shape(0.15, true), Tolerance);
+    assertEquals(0.15, linear.Shape(0.3, false), Tolerance);
+    assertEquals(0.0, linear.Shape(0.0, true), 0.0);
+  }
+
+  @Test
+  public void Turbo_Selects_Turbo_Scale()
+  {
+    assertEquals(0.5, linear.Select_Scale(false), 0.0);
+    assertEquals(1.0, linear.Select_Scale(true), 0.0);
+    assertEquals(0.5, linear.Shape(1.0, false), Tolerance);
+    assertEquals(1.0, linear.Shape(1.0, true), Tolerance);
+    assertEquals(-0.5, linear.Shape(-1.0, false), Tolerance);
+  }
+
+  @Test
+  public void Square_Keeps_The_Sign()
+  {
+    assertEquals(0.25, square.Shape(0.5, true), Tolerance);
+    assertEquals(-0.25, square.Shape(-0.5, true), Tolerance);
+    assertEquals(-0.2, square.Shape(-0.5, false), Tolerance);
+    assertEquals(0.0, square.Shape(-0.3, false), 0.0);       // 0.072, inside the band
+  }
+
+  @Test
+  public void Shape_Allocates_Nothing()
+  {
+    double[] sum = new double[1];
+    long bytes = FakeLoop.Allocated(() ->
+    {
+      sum[0] += linear.Shape(sum[0] > 0.0 ? -0.7 : 0.7, sum[0] > 1.0);
+      sum[0] += square.Shape(-0.4, true);
+    }, Warmup, Cycles);
+    assertEquals("bytes allocated by Shape()", 0, bytes);
+  }
+
+  @Test
+  public void Drive_And_Intake_Allocate_Nothing()
+  {
+    FakeLoop loop = new FakeLoop();
+    loop.core.teleopInit();
+    long bytes = FakeLoop.Allocated(() ->
+    {
+      loop.Next_Inputs();
+      loop.core.Drive_Controls();
+      loop.core.BallInTake_Controls();
+    }, Warmup, Cycles);
+    assertEquals("bytes allocated by the drive and intake controls", 0, bytes);
+  }
+}
@@ -0,0 +1,381 @@
+/*-----------------------------------------------------------------------------*/
+/* Copyright (c) 2018 FIRST. All Rights Reserved.                              */
+/* Open Source Software - may be modified and shared by FRC teams. The code    */
+/* must be accompanied by the FIRST BSD license file in the root directory of  */
+/* the project.                                                                */
+/*                                                                             */
+/* Plays a whole match from a script on FakeHardware, as fast as the CPU      */
+/* allows.  All robot timing reads the hardware clock, and FakeHardware only  */
+/* moves it one loop period per loop, so the run is the same every time and  */
+/* a 150 second match takes milliseconds.  Each script line is a time in     */
+/* match seconds and a step; steps happen at the first loop at or after their */
+/* time, inputs and modes before the loop runs and checks after it:           */
+/*   mode autonomous | teleop | test | disabled                               */
+/*   pressure <volts>                  tank pressure sensor                   */
+/*   stick left|right axis <n> <value>                                        */
+/*   stick left|right button <n> down|up                                      */
+/*   auto <file>                       AutoRecorder file to replay in auto    */
+/*   tune <key> <value>                tuning value, as if the file changed   */
+/*   expect pwm <channel> <value> [tolerance]                                 */
+/*   expect drive <speed> <rotation> [tolerance]                              */
+/*   expect solenoid <channel> on|off                                         */
+/*   expect double_solenoid <forward channel> forward|reverse                 */
+/*   expect number <key> <value> [tolerance]                                  */
+/*   expect boolean <key> true|false                                          */
+/*   expect string <key> <text>                                               */
+/*   end                               stop here, else after the last step    */
+/* Dashboard values are sent by the Telemetry task at 5 Hz, so check them a  */
+/* little after the change.  # starts a comment.  MatchReplayTest plays      */
+/* match/full.match in ./gradlew test; play another script with:             */
+/*     ./gradlew runMatch -Pscript=match/full.match                           */
+/*-----------------------------------------------------------------------------*/
+
+package frc.robot;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+public final class MatchReplay
+{
+  /* One script line. */
+  static final class Step
+  {
+    final double time;
+    final String[] words;
+    final int line;
+
+    Step( double time, String[] words, int line )
+    {
+      this.time = time;
+      this.words = words;
+      this.line = line;
+    }
+  }
+
+  final double DefaultTolerance = 0.01;
+
+  private final FakeHardware hw = new FakeHardware();
+  private final RobotCore core = new RobotCore(hw);
+  private final File script_dir;
+  private String mode = "disabled";
+  private int checks = 0;
+  private int failures = 0;
+
+
+  private MatchReplay( File script )
+  {
+    script_dir = script.getAbsoluteFile().getParentFile();
+  }
+
+  public static void main( String... args ) throws IOException
+  {
+    if( args.length < 1 )
+    {
+      System.out.println( "usage: MatchReplay <script>");
+      System.exit(2);
+    }
+    MatchReplay replay = Play(new File(args[0]));
+    System.exit(replay.failures == 0 ? 0 : 1);
+  }
+
+
+  /*****************************************************************/
+  /* Play() - read script and play it on a new robot.  Failed      */
+  /*          checks are printed and counted.                      */
+  /*****************************************************************/
+  static MatchReplay Play( File script ) throws IOException
+  {
+    List<Step> steps = Read(script);
+    MatchReplay replay = new MatchReplay(script);
+
+    long start = System.nanoTime();
+    double match_time = replay.Run(steps);
+    double ms = (System.nanoTime() - start) / 1e6;
+
+    System.out.printf("%s: %.1f s of match in %.0f ms, %d checks, %d failed%n",
+                      script, match_time, ms, replay.checks, replay.failures);
+    return replay;
+  }
+
+  int Get_Checks()
+  {
+    return checks;
+  }
+
+  int Get_Failures()
+  {
+    return failures;
+  }
+
+
+  /*****************************************************************/
+  /* Read() - parse the script into steps in time order.           */
+  /*****************************************************************/
+  static List<Step> Read( File script ) throws IOException
+  {
+    List<Step> steps = new ArrayList<>();
+    List<String> lines = Files.readAllLines(script.toPath());
+    for( int i = 0; i < lines.size(); i++ )
+    {
+      String text = lines.get(i);
+      int hash = text.indexOf('#');
+      if( hash >= 0 )
+        text = text.substring(0, hash);
+      text = text.trim();
+      if( text.isEmpty() )
+        continue;
+      String[] words = text.split("\\s+");
+      if( words.length < 2 )
+        throw new IOException(script + ":" + (i + 1) + ": time and step needed");
+      double time;
+      try
+      {
+        time = Double.parseDouble(words[0]);
+      }
+      catch( NumberFormatException e )
+      {
+        throw new IOException(script + ":" + (i + 1) + ": bad time " + words[0]);
+      }
+      String[] step = new String[words.length - 1];
+      System.arraycopy(words, 1, step, 0, step.length);
+      steps.add(new Step(time, step, i + 1));
+    }
+    steps.sort((a, b) -> Double.compare(a.time, b.time));   // stable, same time keeps file order
+    return steps;
+  }
+
+
+  /*****************************************************************/
+  /* Run() - play the match.  Returns the match seconds played.    */
+  /*****************************************************************/
+  private double Run( List<Step> steps )
+  {
+    core.robotInit();
+    core.disabledInit();
+    if( steps.isEmpty() )
+      return 0.0;
+
+    long start = hw.nanoTime();
+    int next = 0;
+    int next_check = 0;
+    double end = steps.get(steps.size() - 1).time;
+    double time = 0.0;
+    while( time <= end )
+    {
+      // Inputs and modes due by now, then the loop, then the checks
+      for( ; next < steps.size() && steps.get(next).time <= time; next++ )
+      {
+        Step s = steps.get(next);
+        if( s.words[0].equals("end") )
+          end = Math.min(end, s.time);
+        else if( !s.words[0].equals("expect") )
+          Do(s);
+      }
+      Loop();
+      for( ; next_check < next; next_check++ )
+      {
+        Step s = steps.get(next_check);
+        if( s.words[0].equals("expect") )
+          Check(s, time);
+      }
+
+      hw.Advance(RobotCore.LoopPeriod);
+      time = (hw.nanoTime() - start) * 1e-9;
+    }
+    return time;
+  }
+
+
+  /*****************************************************************/
+  /* Loop() - one robot loop in the current mode, as TimedRobot    */
+  /*          runs it.                                             */
+  /*****************************************************************/
+  private void Loop()
+  {
+    switch( mode )
+    {
+      case "autonomous":
+        core.autonomousPeriodic();
+        break;
+      case "teleop":
+        core.teleopPeriodic();
+        break;
+      case "test":
+        core.testPeriodic();
+        break;
+      default:
+        core.disabledPeriodic();
+        break;
+    }
+    core.robotPeriodic();
+  }
+
+
+  /*****************************************************************/
+  /* Do() - change a mode or an input.                             */
+  /*****************************************************************/
+  private void Do( Step s )
+  {
+    String[] w = s.words;
+    switch( w[0] )
+    {
+      case "mode":
+        Need(s, 2);
+        mode = w[1];
+        switch( mode )
+        {
+          case "autonomous":
+            core.autonomousInit();
+            break;
+          case "teleop":
+            core.teleopInit();
+            break;
+          case "test":
+            core.testInit();
+            break;
+          case "disabled":
+            core.disabledInit();
+            break;
+          default:
+            throw Bad(s, "unknown mode " + mode);
+        }
+        break;
+
+      case "pressure":
+        Need(s, 2);
+        hw.analog[0].volts = Number(s, w[1]);
+        break;
+
+      case "stick":
+        Need(s, 5);
+        int port = w[1].equals("left") ? 0 : w[1].equals("right") ? 1 : -1;
+        if( port < 0 )
+          throw Bad(s, "left or right expected");
+        FakeHardware.FakeStick stick = hw.sticks[port];
+        int n = (int)Number(s, w[3]);
+        if( w[2].equals("axis") )
+          stick.axes[n] = Number(s, w[4]);
+        else if( w[2].equals("button") )
+          stick.setButton(n, w[4].equals("down"));
+        else
+          throw Bad(s, "axis or button expected");
+        break;
+
+      case "auto":
+        Need(s, 2);
+        core.Set_Auto_File(new File(script_dir, w[1]));
+        break;
+
+      case "tune":
+        Need(s, 3);
+        Properties p = new Properties();
+        p.setProperty(w[1], String.join(" ", Arrays.copyOfRange(w, 2, w.length)));
+        core.config.Apply(p);
+        break;
+
+      default:
+        throw Bad(s, "unknown step " + w[0]);
+    }
+  }
+
+
+  /*****************************************************************/
+  /* Check() - compare an output with what the script expects and  */
+  /*           print it when it differs.                           */
+  /*****************************************************************/
+  private void Check( Step s, double time )
+  {
+    String[] w = s.words;
+    Need(s, 4);
+    String expected = w[3];
+    String actual;
+    boolean ok;
+    switch( w[1] )
+    {
+      case "pwm":
+        double value = hw.pwm[(int)Number(s, w[2])].speed;
+        actual = Double.toString(value);
+        ok = Math.abs(value - Number(s, w[3])) <= Tolerance(s, 4);
+        break;
+
+      case "drive":
+        actual = hw.drive.speed + " " + hw.drive.rotation;
+        expected = w[2] + " " + w[3];
+        double tolerance = Tolerance(s, 4);
+        ok = Math.abs(hw.drive.speed - Number(s, w[2])) <= tolerance
+             && Math.abs(hw.drive.rotation - Number(s, w[3])) <= tolerance;
+        break;
+
+      case "solenoid":
+        actual = hw.solenoids[(int)Number(s, w[2])].on ? "on" : "off";
+        ok = actual.equals(expected);
+        break;
+
+      case "double_solenoid":
+        actual = hw.double_solenoids[(int)Number(s, w[2])].forward ? "forward" : "reverse";
+        ok = actual.equals(expected);
+        break;
+
+      case "number":
+        value = hw.dashboard.getNumber(w[2]);
+        actual = Double.toString(value);
+        ok = Math.abs(value - Number(s, w[3])) <= Tolerance(s, 4);
+        break;
+
+      case "boolean":
+        actual = Boolean.toString(hw.dashboard.getBoolean(w[2]));
+        ok = actual.equals(expected);
+        break;
+
+      case "string":
+        expected = String.join(" ", Arrays.copyOfRange(w, 3, w.length));
+        actual = hw.dashboard.strings.get(w[2]);
+        ok = expected.equals(actual);
+        break;
+
+      default:
+        throw Bad(s, "unknown output " + w[1]);
+    }
+
+    checks++;
+    if( !ok )
+    {
+      failures++;
+      System.out.printf("line %d at %.2f s: %s %s expected %s, was %s%n",
+                        s.line, time, w[1], w[2], expected, actual);
+    }
+  }
+
+
+  private double Tolerance( Step s, int word )
+  {
+    return s.words.length > word ? Number(s, s.words[word]) : DefaultTolerance;
+  }
+
+  private static double Number( Step s, String text )
+  {
+    try
+    {
+      return Double.parseDouble(text);
+    }
+    catch( NumberFormatException e )
+    {
+      throw Bad(s, "bad number " + text);
+    }
+  }
+
+  private static void Need( Step s, int words )
+  {
+    if( s.words.length < words )
+      throw Bad(s, "too few words");
+  }
+
+  private static IllegalArgumentException Bad( Step s, String message )
+  {
+    return new IllegalArgumentException("line " + s.line + ": " + message);
+  }
+}
@@ -0,0 +1,28 @@
+/*-----------------------------------------------------------------------------*/
+/* Copyright (c) 2018 FIRST. All Rights Reserved.                              */
+/* Open Source Software - may be modified and shared by FRC teams. The code    */
+/* must be accompanied by the FIRST BSD license file in the root directory of  */
+/* the project.                                                                */
+/*                                                                             */
+/* Plays the scripted full match and fails when any of its checks fail.      */
+/* MatchReplay prints each failed check with its script line.               */
+/*-----------------------------------------------------------------------------*/
+
+package frc.robot;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import org.junit.Test;
+
+public class MatchReplayTest
+{
+  @Test
+  public void Full_Match() throws IOException
+  {
+    MatchReplay replay = MatchReplay.Play(new File("match/full.match"));
+    assertTrue("no checks in the script", replay.Get_Checks() > 0);
+    assertEquals("failed checks, printed above", 0, replay.Get_Failures());
+  }
+}
@@ -0,0 +1,64 @@
+/*-----------------------------------------------------------------------------*/
+/* Copyright (c) 2018 FIRST. All Rights Reserved.                              */
+/* Open Source Software - may be modified and shared by FRC teams. The code    */
+/* must be accompanied by the FIRST BSD license file in the root directory of  */
+/* the project.                                                                */
+/*                                                                             */
+/* Reading tuning values: a value that doesn't parse, isn't finite or is out */
+/* of range keeps the last one, the same as a missing key.                  */
+/*-----------------------------------------------------------------------------*/
+
+package frc.robot;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Properties;
+import org.junit.Test;
+
+public class TuningConfigTest
+{
+  private final TuningConfig.Values built_in = new TuningConfig.Values();
+
+
+  private TuningConfig.Values Read( String key, String value )
+  {
+    Properties p = new Properties();
+    p.setProperty(key, value);
+    return new TuningConfig.Values(p, built_in);
+  }
+
+
+  @Test
+  public void Good_Values_Are_Read()
+  {
+    assertEquals(0.2, Read("DeadBand", " 0.2 ").DeadBand, 0.0);
+    assertEquals(0.5, Read("RobotMaxSpeed", "0.5").RobotMaxSpeed, 0.0);
+    assertEquals(0.0, Read("WinchMaxSpeed", "0").WinchMaxSpeed, 0.0);
+  }
+
+  @Test
+  public void Bad_Values_Keep_The_Last()
+  {
+    assertEquals(built_in.DeadBand, Read("DeadBand", "fast").DeadBand, 0.0);
+    assertEquals(built_in.DeadBand, Read("DeadBand", "NaN").DeadBand, 0.0);
+    assertEquals(built_in.DeadBand, Read("DeadBand", "-0.1").DeadBand, 0.0);
+    assertEquals(built_in.DeadBand, Read("DeadBand", "1.0").DeadBand, 0.0);
+    assertEquals(built_in.RobotMaxSpeed, Read("RobotMaxSpeed", "Infinity").RobotMaxSpeed, 0.0);
+    assertEquals(built_in.RobotNormalSpeed, Read("RobotNormalSpeed", "1.5").RobotNormalSpeed, 0.0);
+    assertEquals(built_in.RobotNormalTurnSpeed, Read("RobotNormalTurnSpeed", "-0.7").RobotNormalTurnSpeed, 0.0);
+    assertEquals(built_in.PressureMax, Read("PressureMax", "-Infinity").PressureMax, 0.0);
+  }
+
+  @Test
+  public void Bad_Expo_Keeps_The_Last_Curve()
+  {
+    Properties p = new Properties();
+    p.setProperty("DriveCurve", "expo");
+    p.setProperty("CurveExpo", "NaN");
+    assertSame(built_in.DriveCurve, new TuningConfig.Values(p, built_in).DriveCurve);
+    p.setProperty("CurveExpo", "1.5");
+    assertSame(built_in.DriveCurve, new TuningConfig.Values(p, built_in).DriveCurve);
+    p.setProperty("CurveExpo", "0.5");
+    assertEquals("expo 0.5", new TuningConfig.Values(p, built_in).DriveCurve.Get_Name());
+  }
+}
@@ -0,0 +1,117 @@
+/*-----------------------------------------------------------------------------*/
+/* Copyright (c) 2018 FIRST. All Rights Reserved.                              */
+/* Open Source Software - may be modified and shared by FRC teams. The code    */
+/* must be accompanied by the FIRST BSD license file in the root directory of  */
+/* the project.                                                                */
+/*                                                                             */
+/* UdpTelemetryReceiver datagram counts: gaps, late and duplicate datagrams, */
+/* and robot restarts, with or without the first datagram after one.        */
+/*-----------------------------------------------------------------------------*/
+
+package frc.robot;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class UdpTelemetryReceiverTest
+{
+  static final long Period = 20000000;           // nanoseconds between datagrams
+  static final long Start = 1000000000000L;      // robot clock at the first datagram
+
+  private final UdpTelemetryReceiver receiver = new UdpTelemetryReceiver();
+
+
+  /* Datagram sequence, sent at its time in a run that started at start. */
+  private void Receive( long sequence, long start )
+  {
+    receiver.Count(sequence, start + sequence * Period);
+  }
+
+  private void Check( long dropped, long out_of_order, long duplicates, long restarts )
+  {
+    assertEquals("dropped", dropped, receiver.dropped);
+    assertEquals("out of order", out_of_order, receiver.out_of_order);
+    assertEquals("duplicates", duplicates, receiver.duplicates);
+    assertEquals("restarts", restarts, receiver.restarts);
+  }
+
+
+  @Test
+  public void In_Order_From_Mid_Stream()
+  {
+    for( long s = 500; s < 600; s++ )
+      Receive(s, Start);
+    assertEquals(100, receiver.received);
+    Check(0, 0, 0, 0);
+  }
+
+  @Test
+  public void Gap_Counts_As_Dropped()
+  {
+    Receive(0, Start);
+    Receive(1, Start);
+    Receive(5, Start);
+    Check(3, 0, 0, 0);
+  }
+
+  @Test
+  public void Late_Datagram_Fills_Its_Gap_Once()
+  {
+    Receive(0, Start);
+    Receive(3, Start);
+    Receive(4, Start);
+    Receive(1, Start);                           // late
+    Check(1, 1, 0, 0);
+    Receive(1, Start);                           // and again
+    Receive(4, Start);                           // never missed
+    Check(1, 1, 2, 0);
+    Receive(2, Start);
+    Check(0, 2, 2, 0);
+  }
+
+  @Test
+  public void Restart_Starts_Again_From_0()
+  {
+    for( long s = 0; s < 1000; s++ )
+      Receive(s, Start);
+    long restart = Start + 1000 * Period + 30000000000L;   // program restarted, clock ran on
+    for( long s = 0; s < 10; s++ )
+      Receive(s, restart);
+    Check(0, 0, 0, 1);
+  }
+
+  @Test
+  public void Restart_Without_Its_First_Datagram()
+  {
+    for( long s = 0; s < 1000; s++ )
+      Receive(s, Start);
+    long restart = Start + 1000 * Period + 30000000000L;
+    for( long s = 1; s < 10; s++ )               // 0 was lost
+      Receive(s, restart);
+    Check(1, 0, 0, 1);
+    Receive(0, restart);                         // and came late after all
+    Check(0, 1, 0, 1);
+  }
+
+  @Test
+  public void Restart_Soon_After_The_Last_One()
+  {
+    for( long s = 0; s < 3; s++ )
+      Receive(s, Start);
+    long restart = Start + 3 * Period + 1000000000L;
+    for( long s = 1; s < 5; s++ )                // a small step back, but the time went on
+      Receive(s, restart);
+    Check(1, 0, 0, 1);
+  }
+
+  @Test
+  public void Reboot_Turns_The_Clock_Back()
+  {
+    for( long s = 0; s < 100; s++ )
+      Receive(s, Start);
+    long reboot = 20000000000L;                  // clock restarted with the roboRIO
+    for( long s = 200; s < 210; s++ )            // the first 200 were lost
+      Receive(s, reboot - 200 * Period);
+    Check(200, 0, 0, 1);
+  }
+}